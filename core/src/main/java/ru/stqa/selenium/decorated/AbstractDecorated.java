@@ -17,13 +17,35 @@
 
 package ru.stqa.selenium.decorated;
 
-import java.util.ArrayList;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public abstract class AbstractDecorated<T> implements Decorated<T> {
 
-  private T original;
-  private T activated;
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AbstractDecorated, Object> ACTIVATED =
+    AtomicReferenceFieldUpdater.newUpdater(AbstractDecorated.class, Object.class, "activated");
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<AbstractDecorated> ORIGINALS_VERSION =
+    AtomicLongFieldUpdater.newUpdater(AbstractDecorated.class, "originalsVersion");
+
+  // both fields are read without locks, volatile makes a replaced original visible to all threads
+  private volatile T original;
+  private volatile T activated;
+
+  // changes whenever the original of this decorator or of a nested one is replaced, the innermost original
+  // is computed on first use and cached until then
+  private volatile long originalsVersion;
+  private volatile Innermost<T> innermost;
+  // nested decorators keep only weak references to listeners, this one is kept alive by the decorator
+  private final Runnable nestedOriginalListener = this::originalsReplaced;
+  private volatile List<WeakReference<Runnable>> originalListeners;
 
   public AbstractDecorated(final T original) {
     this.original = original;
@@ -35,35 +57,154 @@ public abstract class AbstractDecorated<T> implements Decorated<T> {
 
   public void setOriginal(final T original) {
     this.original = original;
+    originalsReplaced();
+  }
+
+  /**
+   * Returns the innermost original, nested decorators are walked again only if an original of this decorator
+   * or of a nested one has been replaced since the last call.
+   */
+  @Override
+  public T getInnermostOriginal() {
+    Innermost<T> cached = innermost;
+    if (cached != null && cached.version == originalsVersion) {
+      return cached.original;
+    }
+    return findInnermostOriginal();
+  }
+
+  @SuppressWarnings("unchecked")
+  private T findInnermostOriginal() {
+    long version = originalsVersion;
+    T current = original;
+    if (! (current instanceof Decorated)) {
+      innermost = new Innermost<>(version, current);
+      return current;
+    }
+    Decorated<T> nested = (Decorated<T>) current;
+    // a nested decorator that can't tell when its originals are replaced is walked on each call
+    boolean watched = nested.addOriginalListener(nestedOriginalListener);
+    T found = nested.getInnermostOriginal();
+    if (watched) {
+      // a version changed in the meantime makes this result outdated right away
+      innermost = new Innermost<>(version, found);
+    }
+    return found;
+  }
+
+  @Override
+  public boolean addOriginalListener(final Runnable listener) {
+    List<WeakReference<Runnable>> listeners = originalListeners;
+    if (listeners == null) {
+      synchronized (this) {
+        if (originalListeners == null) {
+          originalListeners = new CopyOnWriteArrayList<>();
+        }
+        listeners = originalListeners;
+      }
+    }
+    boolean known = false;
+    for (WeakReference<Runnable> reference : listeners) {
+      Runnable existing = reference.get();
+      if (existing == null) {
+        listeners.remove(reference);
+      } else if (existing == listener) {
+        known = true;
+      }
+    }
+    if (! known) {
+      listeners.add(new WeakReference<>(listener));
+    }
+    T current = original;
+    return ! (current instanceof Decorated) || ((Decorated<?>) current).addOriginalListener(nestedOriginalListener);
+  }
+
+  private void originalsReplaced() {
+    ORIGINALS_VERSION.incrementAndGet(this);
+    List<WeakReference<Runnable>> listeners = originalListeners;
+    if (listeners == null) {
+      return;
+    }
+    for (WeakReference<Runnable> reference : listeners) {
+      Runnable listener = reference.get();
+      if (listener == null) {
+        listeners.remove(reference);
+      } else {
+        listener.run();
+      }
+    }
+  }
+
+  private static final class Innermost<T> {
+    private final long version;
+    private final T original;
+
+    private Innermost(final long version, final T original) {
+      this.version = version;
+      this.original = original;
+    }
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   final public T getActivated() {
-    if (activated == null) {
-      activated = new Activator<T>().activate(this);
+    T result = activated;
+    if (result == null) {
+      // concurrent callers may create several proxies, all of them get the first published one
+      T created = new Activator<T>().activate(this);
+      result = ACTIVATED.compareAndSet(this, null, created) ? created : activated;
     }
-    return activated;
+    return result;
   }
 
+  @SuppressWarnings("unchecked")
   protected Object unwrap(Object result) {
     if (result instanceof Decorated) {
-      return ((Decorated) result).getOriginal();
+      return ((Decorated<?>) result).getInnermostOriginal();
+    }
+    // collections are never copied: views are unwrapped without decorating their items, and items
+    // decorated by a nested decorator are unwrapped lazily
+    if (result instanceof DecoratedList) {
+      DecoratedList<Object> list = (DecoratedList<Object>) result;
+      List<Object> original = list.getOriginal();
+      if (original instanceof DecoratedList) {
+        return unwrap(original);
+      }
+      if (original != null) {
+        return list.unwrapOriginal(AbstractDecorated::unwrapItem);
+      }
+    }
+    if (result instanceof DecoratedMap) {
+      DecoratedMap<Object, Object> map = (DecoratedMap<Object, Object>) result;
+      Map<Object, Object> original = map.getOriginal();
+      if (original instanceof DecoratedMap) {
+        return unwrap(original);
+      }
+      if (original != null) {
+        return map.unwrapOriginal(AbstractDecorated::unwrapItem);
+      }
     }
     if (result instanceof List) {
       // TODO: Create typed list
-      List<Object> newList = new ArrayList<>();
-      for (Object o : (List) result) {
-        if (o instanceof Decorated) {
-          newList.add(((Decorated) o).getOriginal());
-        } else {
-          newList.add(o);
-        }
-      }
-      return newList;
+      return new DecoratedList<>((List<Object>) result, AbstractDecorated::unwrapItem);
     }
     return result;
   }
 
+  private static Object unwrapItem(Object item) {
+    return item instanceof Decorated ? ((Decorated<?>) item).getInnermostOriginal() : item;
+  }
+
+  // items of a collection returned by a nested decorator are decorated too
+  static boolean containsDecorated(Collection<?> items) {
+    for (Object o : items) {
+      if (o instanceof Decorated) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public String toString() {
     return String.format("Decorated {%s}", original);
@@ -74,7 +215,7 @@ public abstract class AbstractDecorated<T> implements Decorated<T> {
     if (this == o) return true;
 
     if (o instanceof AbstractDecorated) {
-      AbstractDecorated that = (AbstractDecorated) o;
+      AbstractDecorated<?> that = (AbstractDecorated<?>) o;
       return original.equals(that.original);
 
     } else {
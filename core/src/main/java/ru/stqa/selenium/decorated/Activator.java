@@ -17,53 +17,118 @@
 
 package ru.stqa.selenium.decorated;
 
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
-import java.util.HashSet;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Activator<T> {
 
-  public final T activate(final Decorated<T> decorated) {
-    final Set<Class<?>> decoratedInterfaces = extractInterfaces(decorated);
+  /**
+   * System property that selects the way proxies are created: "proxy" (default) uses JDK dynamic proxies,
+   * "bytecode" generates proxy classes with Byte Buddy, which has to be added to the classpath.
+   */
+  public static final String ENGINE_PROPERTY = "decorated.webdriver.activator";
 
-    final InvocationHandler handler = (proxy, method, args) -> {
-      try {
-        if (! decoratedInterfaces.contains(method.getDeclaringClass())) {
-          return method.invoke(decorated.getOriginal(), args);
-        }
-        boolean isUnwrap = method.getName().equals("getOriginal");
-        if (! isUnwrap) {
-          decorated.beforeMethod(method, args);
-        }
-        Object result = decorated.callMethod(method, args);
-        if (! isUnwrap) {
-          decorated.afterMethod(method, result, args);
+  private static final Logger LOG = Logger.getLogger(Activator.class.getName());
+
+  private static final boolean GENERATE_PROXY_CLASSES = isBytecodeEngineEnabled();
+
+  private static final ClassValue<Set<Class<?>>> DECORATED_INTERFACES = new ClassValue<Set<Class<?>>>() {
+    @Override
+    protected Set<Class<?>> computeValue(Class<?> decoratorClass) {
+      return Collections.unmodifiableSet(extractInterfaces(decoratorClass));
+    }
+  };
+
+  // decorator class -> original class -> factory of proxies
+  private static final ClassValue<ClassValue<ProxyFactory>> PROXY_FACTORIES = new ClassValue<ClassValue<ProxyFactory>>() {
+    @Override
+    protected ClassValue<ProxyFactory> computeValue(final Class<?> decoratorClass) {
+      return new ClassValue<ProxyFactory>() {
+        @Override
+        protected ProxyFactory computeValue(Class<?> originalClass) {
+          Set<Class<?>> decoratedInterfaces = DECORATED_INTERFACES.get(decoratorClass);
+          Set<Class<?>> allInterfaces = new LinkedHashSet<>(decoratedInterfaces);
+          allInterfaces.addAll(extractInterfaces(originalClass));
+          return createProxyFactory(decoratedInterfaces, allInterfaces.toArray(new Class<?>[allInterfaces.size()]));
         }
-        return result;
+      };
+    }
+  };
+
+  // the proxy implements all the interfaces of the original
+  @SuppressWarnings("unchecked")
+  public final T activate(final Decorated<T> decorated) {
+    return (T) PROXY_FACTORIES.get(decorated.getClass()).get(decorated.getOriginal().getClass()).newProxy(decorated);
+  }
 
-      } catch (InvocationTargetException e) {
-        return decorated.onError(method, e, args);
+  static Object invokeDecorated(final Decorated<?> decorated, final MethodDescriptor descriptor, final Object[] args)
+      throws Throwable {
+    final Method method = descriptor.getMethod();
+    try {
+      if (descriptor.skipsHooks()) {
+        // unwrapping skips the hooks and the layers of composite decorators
+        return MethodInvoker.invoke(method, decorated, args);
       }
-    };
+      decorated.beforeMethod(method, args);
+      Object result = decorated.callMethod(method, args);
+      decorated.afterMethod(method, result, args);
+      return result;
 
-    Set<Class<?>> allInterfaces = extractInterfaces(decorated.getOriginal());
-    allInterfaces.addAll(decoratedInterfaces);
-    Class<?>[] allInterfacesArray = allInterfaces.toArray(new Class<?>[allInterfaces.size()]);
+    } catch (InvocationTargetException e) {
+      return decorated.onError(method, e, args);
+    }
+  }
+
+  static Object invokeOriginal(final Decorated<?> decorated, final Method method, final Object[] args) throws Throwable {
+    try {
+      return MethodInvoker.invoke(method, decorated.getOriginal(), args);
+    } catch (InvocationTargetException e) {
+      return decorated.onError(method, e, args);
+    }
+  }
+
+  // the hash code of a proxy is asked for each time it is put into a hash map, so it is got without reflection
+  static Object invokeHashCode(final Decorated<?> decorated, final Method method) throws Throwable {
+    try {
+      return decorated.getOriginal().hashCode();
+    } catch (Throwable e) {
+      return decorated.onError(method, new TargetInvocationException(e), null);
+    }
+  }
 
-    return (T) Proxy.newProxyInstance(
-      this.getClass().getClassLoader(),
-      allInterfaces.toArray(allInterfacesArray),
-      handler);
+  private static ProxyFactory createProxyFactory(final Set<Class<?>> decoratedInterfaces, final Class<?>[] interfaces) {
+    if (GENERATE_PROXY_CLASSES && GeneratedProxyFactory.canImplement(interfaces)) {
+      try {
+        return GeneratedProxyFactory.create(decoratedInterfaces, interfaces);
+      } catch (RuntimeException | LinkageError e) {
+        LOG.log(Level.WARNING, e, () -> "Cannot generate a proxy class for " + Arrays.toString(interfaces)
+          + ", falling back to JDK dynamic proxies");
+      }
+    }
+    return JdkProxyFactory.create(Activator.class.getClassLoader(), decoratedInterfaces, interfaces);
   }
 
-  private static Set<Class<?>> extractInterfaces(final Object object) {
-    return extractInterfaces(object.getClass());
+  private static boolean isBytecodeEngineEnabled() {
+    if (! "bytecode".equals(System.getProperty(ENGINE_PROPERTY))) {
+      return false;
+    }
+    try {
+      Class.forName("net.bytebuddy.ByteBuddy", false, Activator.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      LOG.log(Level.WARNING, "Byte Buddy is not available, falling back to JDK dynamic proxies", e);
+      return false;
+    }
   }
 
   private static Set<Class<?>> extractInterfaces(final Class<?> clazz) {
-    Set<Class<?>> allInterfaces = new HashSet<>();
+    Set<Class<?>> allInterfaces = new LinkedHashSet<>();
     extractInterfaces(allInterfaces, clazz);
 
     return allInterfaces;
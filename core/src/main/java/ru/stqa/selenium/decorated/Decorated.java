@@ -23,6 +23,25 @@ public interface Decorated<T> {
   T getOriginal();
   T getActivated();
 
+  /**
+   * Returns the undecorated object under all nested decorators. Like {@link #getOriginal()}
+   * it does not trigger any hooks.
+   */
+  @SuppressWarnings("unchecked")
+  default T getInnermostOriginal() {
+    T original = getOriginal();
+    return original instanceof Decorated ? ((Decorated<T>) original).getInnermostOriginal() : original;
+  }
+
+  /**
+   * Makes the decorator run the listener whenever its innermost original may change, that is when the original
+   * of this decorator or of a nested one is replaced. The decorator may keep only a weak reference to the listener.
+   * Returns false if the decorator can't tell such changes, then the innermost original can't be cached.
+   */
+  default boolean addOriginalListener(Runnable listener) {
+    return false;
+  }
+
   void beforeMethod(Method method, Object[] args);
   Object callMethod(Method method, Object[] args) throws Throwable ;
   void afterMethod(Method method, Object result, Object[] args);
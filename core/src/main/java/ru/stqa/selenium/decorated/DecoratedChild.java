@@ -21,7 +21,7 @@ import java.lang.reflect.Method;
 
 public abstract class DecoratedChild<T, DT extends DecoratedTopmost<?>> extends AbstractDecorated<T> {
 
-  private DT topmost;
+  private final DT topmost;
 
   public DecoratedChild(T original, DT topmost) {
     super(original);
@@ -34,7 +34,10 @@ public abstract class DecoratedChild<T, DT extends DecoratedTopmost<?>> extends
 
   @Override
   public void beforeMethod(Method method, Object[] args) {
-    getTopmostDecorated().beforeMethodGlobal(this, method, args);
+    DT topmost = getTopmostDecorated();
+    if (topmost.isIntercepted(method)) {
+      topmost.beforeMethodGlobal(this, method, args);
+    }
   }
 
   @Override
@@ -44,12 +47,15 @@ public abstract class DecoratedChild<T, DT extends DecoratedTopmost<?>> extends
 
   @Override
   public void afterMethod(Method method, Object res, Object[] args) {
-    getTopmostDecorated().afterMethodGlobal(this, method, unwrap(res), args);
+    DT topmost = getTopmostDecorated();
+    if (topmost.isIntercepted(method)) {
+      topmost.afterMethodGlobal(this, method, unwrap(res), args);
+    }
   }
 
   @Override
   public Object onError(Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    return getTopmostDecorated().onErrorGlobal(this, method, e, args);
+    return getTopmostDecorated().handleError(this, method, e, args);
   }
 
 }
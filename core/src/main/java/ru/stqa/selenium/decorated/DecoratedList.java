@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ObjIntConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * A list that decorates items of the original list on first access. Until the list is modified
+ * it can be unwrapped to the original list without copying.
+ */
+final class DecoratedList<T> extends AbstractList<T> implements RandomAccess {
+
+  private final List<T> original;
+  private final UnaryOperator<T> decorator;
+  private final Object[] decorated;
+  // a list of decorated items that replaces the view once it has been modified
+  private List<T> modified;
+  // gets items with their indexes as they are decorated
+  private ObjIntConsumer<? super T> watcher;
+  // the original list with items of nested decorators unwrapped, shared by all decorators that unwrap the list
+  private List<T> unwrapped;
+
+  DecoratedList(final List<T> original, final UnaryOperator<T> decorator) {
+    this.original = original;
+    this.decorator = decorator;
+    this.decorated = new Object[original.size()];
+  }
+
+  /**
+   * Returns the original list or null if the list has been modified.
+   */
+  List<T> getOriginal() {
+    return modified == null ? original : null;
+  }
+
+  /**
+   * Returns the original list, or a view of it that unwraps items with the unwrapper if some of them are
+   * decorated, or null if the list has been modified. The items of the original list are checked only once.
+   */
+  List<T> unwrapOriginal(final UnaryOperator<T> unwrapper) {
+    if (modified != null) {
+      return null;
+    }
+    if (unwrapped == null) {
+      unwrapped = AbstractDecorated.containsDecorated(original) ? new DecoratedList<>(original, unwrapper) : original;
+    }
+    return unwrapped;
+  }
+
+  /**
+   * Passes each item to the watcher when it is decorated, items decorated so far are passed right away.
+   */
+  @SuppressWarnings("unchecked")
+  void watch(final ObjIntConsumer<? super T> watcher) {
+    this.watcher = watcher;
+    for (int i = 0; i < decorated.length; i++) {
+      if (decorated[i] != null) {
+        watcher.accept((T) decorated[i], i);
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(final int index) {
+    if (modified != null) {
+      return modified.get(index);
+    }
+    Object item = decorated[index];
+    if (item == null) {
+      T originalItem = original.get(index);
+      item = originalItem == null ? null : decorator.apply(originalItem);
+      decorated[index] = item;
+      if (item != null && watcher != null) {
+        watcher.accept((T) item, index);
+      }
+    }
+    return (T) item;
+  }
+
+  @Override
+  public int size() {
+    return modified != null ? modified.size() : decorated.length;
+  }
+
+  @Override
+  public T set(final int index, final T element) {
+    return modifiable().set(index, element);
+  }
+
+  @Override
+  public void add(final int index, final T element) {
+    modifiable().add(index, element);
+    modCount++;
+  }
+
+  @Override
+  public T remove(final int index) {
+    T removed = modifiable().remove(index);
+    modCount++;
+    return removed;
+  }
+
+  private List<T> modifiable() {
+    if (modified == null) {
+      List<T> items = new ArrayList<>(decorated.length);
+      for (int i = 0; i < decorated.length; i++) {
+        items.add(get(i));
+      }
+      modified = items;
+    }
+    return modified;
+  }
+}
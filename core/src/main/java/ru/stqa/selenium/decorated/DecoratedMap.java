@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * A map that decorates values of the original map on first access. Until the map is modified
+ * it can be unwrapped to the original map without copying.
+ */
+final class DecoratedMap<K, V> extends AbstractMap<K, V> {
+
+  private final Map<K, V> original;
+  private final UnaryOperator<V> decorator;
+  private Map<Object, V> decorated;
+  // a map of decorated values that replaces the view once it has been modified
+  private Map<K, V> modified;
+  // the original map with values of nested decorators unwrapped, shared by all decorators that unwrap the map
+  private Map<K, V> unwrapped;
+
+  DecoratedMap(final Map<K, V> original, final UnaryOperator<V> decorator) {
+    this.original = original;
+    this.decorator = decorator;
+  }
+
+  /**
+   * Returns the original map or null if the map has been modified.
+   */
+  Map<K, V> getOriginal() {
+    return modified == null ? original : null;
+  }
+
+  /**
+   * Returns the original map, or a view of it that unwraps values with the unwrapper if some of them are
+   * decorated, or null if the map has been modified. The values of the original map are checked only once.
+   */
+  Map<K, V> unwrapOriginal(final UnaryOperator<V> unwrapper) {
+    if (modified != null) {
+      return null;
+    }
+    if (unwrapped == null) {
+      unwrapped = AbstractDecorated.containsDecorated(original.values())
+        ? new DecoratedMap<>(original, unwrapper) : original;
+    }
+    return unwrapped;
+  }
+
+  @Override
+  public V get(final Object key) {
+    if (modified != null) {
+      return modified.get(key);
+    }
+    V value = decorated != null ? decorated.get(key) : null;
+    if (value == null) {
+      V originalValue = original.get(key);
+      if (originalValue == null) {
+        return null;
+      }
+      value = decorator.apply(originalValue);
+      if (decorated == null) {
+        decorated = new HashMap<>();
+      }
+      decorated.put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return modified != null ? modified.containsKey(key) : original.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return modified != null ? modified.size() : original.size();
+  }
+
+  // keys are not decorated, they are read from the original map without decorating values
+  @Override
+  public Set<K> keySet() {
+    return modified != null ? modified.keySet() : Collections.unmodifiableSet(original.keySet());
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    if (modified != null) {
+      return modified.entrySet();
+    }
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        final Iterator<K> keys = original.keySet().iterator();
+        return new Iterator<Entry<K, V>>() {
+          @Override
+          public boolean hasNext() {
+            return keys.hasNext();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            K key = keys.next();
+            return new SimpleImmutableEntry<>(key, get(key));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return original.size();
+      }
+    };
+  }
+
+  @Override
+  public V put(final K key, final V value) {
+    return modifiable().put(key, value);
+  }
+
+  @Override
+  public V remove(final Object key) {
+    return modifiable().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    modifiable().clear();
+  }
+
+  private Map<K, V> modifiable() {
+    if (modified == null) {
+      Map<K, V> values = new LinkedHashMap<>();
+      for (K key : original.keySet()) {
+        values.put(key, get(key));
+      }
+      modified = values;
+    }
+    return modified;
+  }
+}
@@ -25,10 +25,20 @@ import java.util.Set;
 
 public class DecoratedOptions extends DecoratedChild<WebDriver.Options,DecoratedWebDriver> implements WebDriver.Options {
 
+  private volatile WebDriver.Timeouts timeouts;
+  private volatile WebDriver.Window window;
+
   public DecoratedOptions(final WebDriver.Options options, final DecoratedWebDriver driverWrapper) {
     super(options, driverWrapper);
   }
 
+  @Override
+  public void setOriginal(final WebDriver.Options original) {
+    super.setOriginal(original);
+    timeouts = null;
+    window = null;
+  }
+
   @Override
   public void addCookie(Cookie cookie) {
     getOriginal().addCookie(cookie);
@@ -61,7 +71,12 @@ public class DecoratedOptions extends DecoratedChild<WebDriver.Options,Decorated
 
   @Override
   public WebDriver.Timeouts timeouts() {
-    return new Activator<WebDriver.Timeouts>().activate(getTopmostDecorated().createDecorated(getOriginal().timeouts()));
+    WebDriver.Timeouts cached = timeouts;
+    if (cached == null) {
+      cached = getTopmostDecorated().createDecorated(getOriginal().timeouts()).getActivated();
+      timeouts = cached;
+    }
+    return cached;
   }
 
   @Override
@@ -71,7 +86,12 @@ public class DecoratedOptions extends DecoratedChild<WebDriver.Options,Decorated
 
   @Override
   public WebDriver.Window window() {
-    return new Activator<WebDriver.Window>().activate(getTopmostDecorated().createDecorated(getOriginal().window()));
+    WebDriver.Window cached = window;
+    if (cached == null) {
+      cached = getTopmostDecorated().createDecorated(getOriginal().window()).getActivated();
+      window = cached;
+    }
+    return cached;
   }
 
   @Override
@@ -65,7 +65,7 @@ public class DecoratedTargetLocator extends DecoratedChild<WebDriver.TargetLocat
 
   @Override
   public WebElement activeElement() {
-    return getTopmostDecorated().createDecorated(getOriginal().activeElement()).getActivated();
+    return getTopmostDecorated().wrapElement(getOriginal().activeElement());
   }
 
   @Override
@@ -16,32 +16,128 @@
 
 package ru.stqa.selenium.decorated;
 
-import com.google.common.base.Throwables;
-
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 
 public abstract class DecoratedTopmost<T> extends AbstractDecorated<T> {
 
+  /**
+   * Can be returned by {@link #onErrorGlobal} to call the failed method once again, for example after
+   * the cause of the failure has been fixed. The method is retried only once: if the second attempt fails
+   * its exception is thrown without calling the error hooks again.
+   */
+  public static final Signal RETRY = new Signal("RETRY");
+
+  /**
+   * A preallocated value returned by an error hook instead of the result of the failed method.
+   */
+  public static final class Signal {
+    private final String name;
+
+    private Signal(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * Call of a method that throws an {@link InvocationTargetException} if the method fails, like a reflective call.
+   */
+  @FunctionalInterface
+  public interface Invocation {
+    Object invoke(Decorated<?> target, Method method, Object[] args) throws Throwable;
+  }
+
+  // a filter is replaced together with its results, so results of an old filter can't be mixed with a new one
+  private volatile MethodFilter methodFilter;
+
+  // null if the method is called on the target, set if this decorator is a layer of a composite one
+  private volatile Invocation innerLayer;
+
   public DecoratedTopmost(T original) {
     super(original);
   }
 
+  /**
+   * Makes {@link #callMethodGlobal} pass calls to the next layer of a composite decorator instead of
+   * calling the method on the target.
+   */
+  public final void setInnerLayer(final Invocation innerLayer) {
+    this.innerLayer = innerLayer;
+  }
+
+  /**
+   * Restricts before and after hooks to the methods accepted by the filter, other methods are called
+   * without the hooks. The filter is evaluated once per method. Errors are passed to onError hooks regardless
+   * of the filter.
+   */
+  public final void setMethodFilter(final Predicate<Method> methodFilter) {
+    this.methodFilter = methodFilter == null ? null : new MethodFilter(methodFilter);
+  }
+
+  public final boolean isIntercepted(final Method method) {
+    final MethodFilter filter = methodFilter;
+    return filter == null || filter.accepts(method);
+  }
+
+  private static final class MethodFilter {
+    private final Predicate<Method> predicate;
+    private final ConcurrentMap<Method, Boolean> results = new ConcurrentHashMap<>();
+
+    MethodFilter(final Predicate<Method> predicate) {
+      this.predicate = predicate;
+    }
+
+    boolean accepts(final Method method) {
+      Boolean accepted = results.get(method);
+      if (accepted == null) {
+        accepted = predicate.test(method);
+        results.putIfAbsent(method, accepted);
+      }
+      return accepted;
+    }
+  }
+
   public void beforeMethodGlobal(Decorated<?> target, Method method, Object[] args) {}
 
   public Object callMethodGlobal(Decorated<?> target, Method method, Object[] args) throws Throwable {
-    return method.invoke(target, args);
+    Invocation inner = innerLayer;
+    return inner == null ? MethodInvoker.invoke(method, target, args) : inner.invoke(target, method, args);
   }
 
   public void afterMethodGlobal(Decorated<?> target, Method method, Object res, Object[] args) {}
 
+  /**
+   * Passes the exception thrown by the method to {@link #onErrorGlobal(Decorated, Method, Throwable, Object[])}.
+   *
+   * @deprecated override {@link #onErrorGlobal(Decorated, Method, Throwable, Object[])}, which gets
+   * the exception without a wrapper
+   */
+  @Deprecated
   public Object onErrorGlobal(Decorated<?> target, Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    throw Throwables.propagate(e.getTargetException());
+    return onErrorGlobal(target, method, e.getTargetException(), args);
+  }
+
+  /**
+   * Handles an exception thrown by the method: returns a value to be returned by the call instead,
+   * returns {@link #RETRY} to call the method once again or throws an exception. Rethrows the exception by default.
+   */
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+    throw unchecked(error);
   }
 
   @Override
   public void beforeMethod(Method method, Object[] args) {
-    beforeMethodGlobal(this, method, args);
+    if (isIntercepted(method)) {
+      beforeMethodGlobal(this, method, args);
+    }
   }
 
   @Override
@@ -51,12 +147,72 @@ public abstract class DecoratedTopmost<T> extends AbstractDecorated<T> {
 
   @Override
   public void afterMethod(Method method, Object res, Object[] args) {
-    afterMethodGlobal(this, method, unwrap(res), args);
+    if (isIntercepted(method)) {
+      afterMethodGlobal(this, method, unwrap(res), args);
+    }
   }
 
   @Override
   public Object onError(Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    return onErrorGlobal(this, method, e, args);
+    return handleError(this, method, e, args);
+  }
+
+  /**
+   * Runs the hooks of this decorator around the call as if it was a proxy nested in the caller: the failure
+   * of the method that is not handled, as well as a failure of a hook, is thrown as an
+   * {@link InvocationTargetException}. Composite decorators call their layers this way.
+   */
+  public final Object callAsLayer(Decorated<?> target, Method method, Object[] args) throws Throwable {
+    boolean intercepted = isIntercepted(method);
+    Object res;
+    try {
+      if (intercepted) {
+        beforeMethodGlobal(target, method, args);
+      }
+      res = callMethodGlobal(target, method, args);
+    } catch (InvocationTargetException e) {
+      // a value returned by the error hook goes to the outer layers only, as it does from a nested proxy
+      try {
+        return handleError(target, method, e, args);
+      } catch (Throwable t) {
+        throw t == e.getTargetException() ? e : new TargetInvocationException(t);
+      }
+    } catch (Throwable t) {
+      throw new TargetInvocationException(t);
+    }
+    if (intercepted) {
+      try {
+        afterMethodGlobal(target, method, unwrap(res), args);
+      } catch (Throwable t) {
+        throw new TargetInvocationException(t);
+      }
+    }
+    return res;
+  }
+
+  @SuppressWarnings("deprecation")
+  final Object handleError(Decorated<?> target, Method method, InvocationTargetException e, Object[] args)
+      throws Throwable {
+    Object result = onErrorGlobal(target, method, e, args);
+    if (result != RETRY) {
+      return result;
+    }
+    try {
+      return callMethodGlobal(target, method, args);
+    } catch (InvocationTargetException e1) {
+      throw unchecked(e1.getTargetException());
+    }
+  }
+
+  // decorated interfaces declare no checked exceptions, so these are wrapped
+  private static RuntimeException unchecked(Throwable error) {
+    if (error instanceof RuntimeException) {
+      return (RuntimeException) error;
+    }
+    if (error instanceof Error) {
+      throw (Error) error;
+    }
+    return new RuntimeException(error);
   }
 
 }
@@ -24,8 +24,9 @@ import org.openqa.selenium.internal.WrapsDriver;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This class allows to extend WebDriver by adding new functionality to a decorated.
@@ -38,20 +39,69 @@ import java.util.Set;
 public class DecoratedWebDriver extends DecoratedTopmost<WebDriver>
     implements WebDriver, WrapsDriver, JavascriptExecutor, HasInputDevices, HasTouchScreen, Interactive {
 
+  private volatile WeakInterner<WebElement, WebElement> internedElements;
+
+  // child decorators are stateless, they are created once per original driver
+  private volatile TargetLocator targetLocator;
+  private volatile Navigation navigation;
+  private volatile Options options;
+
   public DecoratedWebDriver(WebDriver driver) {
     super(driver);
   }
 
+  @Override
+  public void setOriginal(final WebDriver original) {
+    super.setOriginal(original);
+    targetLocator = null;
+    navigation = null;
+    options = null;
+  }
+
+  /**
+   * Makes repeated lookups of the same element return the same activated element as long as it is
+   * reachable, elements are considered the same if the original elements are equal. Has no effect
+   * if {@link #canInternElements} returns false.
+   */
+  public void setInternElements(boolean internElements) {
+    this.internedElements = internElements ? new WeakInterner<>() : null;
+  }
+
+  /**
+   * Returns false if element decorators keep the state of the lookup that has found the element, such decorators
+   * can't be shared by different lookups and are never interned.
+   */
+  protected boolean canInternElements() {
+    return true;
+  }
+
+  protected WebElement wrapElement(final WebElement element) {
+    WeakInterner<WebElement, WebElement> interned = internedElements;
+    if (interned == null || ! canInternElements()) {
+      return createDecorated(element).getActivated();
+    }
+    return interned.intern(element, original -> createDecorated(original).getActivated());
+  }
+
   protected Decorated<WebElement> createDecorated(WebElement original) {
     return new DecoratedWebElement(original, this);
   }
 
   protected List<WebElement> wrapElements(final List<WebElement> elements) {
-    for (ListIterator<WebElement> iterator = elements.listIterator(); iterator.hasNext(); ) {
-      // TODO: WTF?
-      iterator.set(createDecorated(iterator.next()).getActivated());
+    return new DecoratedList<>(elements, this::wrapElement);
+  }
+
+  /**
+   * Passes each item of a list returned by the decorated driver to the watcher with its index, when the item
+   * is decorated on first access. Returns false if the list is not a view that decorates its items.
+   */
+  @SuppressWarnings("unchecked")
+  protected boolean watchDecoratedItems(final List<?> list, final ObjIntConsumer<Object> watcher) {
+    if (! (list instanceof DecoratedList) || ((DecoratedList<?>) list).getOriginal() == null) {
+      return false;
     }
-    return elements;
+    ((DecoratedList<Object>) list).watch(watcher);
+    return true;
   }
 
   protected Decorated<TargetLocator> createDecorated(final TargetLocator original) {
@@ -94,13 +144,72 @@ public class DecoratedWebDriver extends DecoratedTopmost<WebDriver>
     return new DecoratedTouchScreen(original, this);
   }
 
-  // TODO: implement proper wrapping for arbitrary objects
+  // elements are decorated, lists and maps are wrapped into views that decorate their items on first access
+  @SuppressWarnings("unchecked")
   Object wrapObject(final Object object) {
     if (object instanceof WebElement) {
-      return createDecorated((WebElement) object).getActivated();
-    } else {
-      return object;
+      return wrapElement((WebElement) object);
+    }
+    if (object instanceof List) {
+      return new DecoratedList<>((List<Object>) object, this::wrapObject);
+    }
+    if (object instanceof Map) {
+      return new DecoratedMap<>((Map<Object, Object>) object, this::wrapObject);
+    }
+    return object;
+  }
+
+  // the original driver gets undecorated elements, a copy of the array is made only if needed
+  private static Object[] unwrapArguments(final Object[] args) {
+    if (args == null) {
+      return null;
+    }
+    Object[] unwrapped = args;
+    for (int i = 0; i < args.length; i++) {
+      Object arg = unwrapArgument(args[i]);
+      if (arg != args[i]) {
+        if (unwrapped == args) {
+          unwrapped = args.clone();
+        }
+        unwrapped[i] = arg;
+      }
     }
+    return unwrapped;
+  }
+
+  // collections are not copied, decorated views give their originals back, other collections are unwrapped lazily
+  // and passed as they are if they contain nothing to unwrap
+  @SuppressWarnings("unchecked")
+  private static Object unwrapArgument(final Object arg) {
+    if (arg instanceof Decorated) {
+      return ((Decorated<?>) arg).getInnermostOriginal();
+    }
+    if (arg instanceof DecoratedList && ((DecoratedList<?>) arg).getOriginal() != null) {
+      return ((DecoratedList<?>) arg).getOriginal();
+    }
+    if (arg instanceof DecoratedMap && ((DecoratedMap<?, ?>) arg).getOriginal() != null) {
+      return ((DecoratedMap<?, ?>) arg).getOriginal();
+    }
+    if (arg instanceof List && needsUnwrapping((List<?>) arg)) {
+      return new DecoratedList<>((List<Object>) arg, DecoratedWebDriver::unwrapArgument);
+    }
+    if (arg instanceof Map && needsUnwrapping(((Map<?, ?>) arg).values())) {
+      return new DecoratedMap<>((Map<Object, Object>) arg, DecoratedWebDriver::unwrapArgument);
+    }
+    return arg;
+  }
+
+  private static boolean needsUnwrapping(final Collection<?> items) {
+    for (Object item : items) {
+      if (item instanceof Decorated || item instanceof DecoratedList || item instanceof DecoratedMap) {
+        return true;
+      }
+      if (item instanceof List && needsUnwrapping((List<?>) item)
+          || item instanceof Map && needsUnwrapping(((Map<?, ?>) item).values())) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -125,7 +234,7 @@ public class DecoratedWebDriver extends DecoratedTopmost<WebDriver>
 
   @Override
   public WebElement findElement(final By by) {
-    return createDecorated(getOriginal().findElement(by)).getActivated();
+    return wrapElement(getOriginal().findElement(by));
   }
 
   @Override
@@ -160,24 +269,39 @@ public class DecoratedWebDriver extends DecoratedTopmost<WebDriver>
 
   @Override
   public TargetLocator switchTo() {
-    return createDecorated(getOriginal().switchTo()).getActivated();
+    TargetLocator cached = targetLocator;
+    if (cached == null) {
+      cached = createDecorated(getOriginal().switchTo()).getActivated();
+      targetLocator = cached;
+    }
+    return cached;
   }
 
   @Override
   public Navigation navigate() {
-    return createDecorated(getOriginal().navigate()).getActivated();
+    Navigation cached = navigation;
+    if (cached == null) {
+      cached = createDecorated(getOriginal().navigate()).getActivated();
+      navigation = cached;
+    }
+    return cached;
   }
 
   @Override
   public Options manage() {
-    return createDecorated(getOriginal().manage()).getActivated();
+    Options cached = options;
+    if (cached == null) {
+      cached = createDecorated(getOriginal().manage()).getActivated();
+      options = cached;
+    }
+    return cached;
   }
 
   @Override
   public Object executeScript(String script, Object... args) {
     WebDriver driver = getOriginal();
     if (driver instanceof JavascriptExecutor) {
-      return wrapObject(((JavascriptExecutor) driver).executeScript(script, args));
+      return wrapObject(((JavascriptExecutor) driver).executeScript(script, unwrapArguments(args)));
     } else {
       throw new WebDriverException("Wrapped webdriver does not implement JavascriptExecutor: " + driver);
     }
@@ -187,7 +311,7 @@ public class DecoratedWebDriver extends DecoratedTopmost<WebDriver>
   public Object executeAsyncScript(String script, Object... args) {
     WebDriver driver = getOriginal();
     if (driver instanceof JavascriptExecutor) {
-      return wrapObject(((JavascriptExecutor) driver).executeAsyncScript(script, args));
+      return wrapObject(((JavascriptExecutor) driver).executeAsyncScript(script, unwrapArguments(args)));
     } else {
       throw new WebDriverException("Wrapped webdriver does not implement JavascriptExecutor: " + driver);
     }
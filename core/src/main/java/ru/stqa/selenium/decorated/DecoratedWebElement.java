@@ -91,7 +91,7 @@ public class DecoratedWebElement extends DecoratedChild<WebElement,DecoratedWebD
 
   @Override
   public WebElement findElement(final By by) {
-    return getTopmostDecorated().createDecorated(getOriginal().findElement(by)).getActivated();
+    return getTopmostDecorated().wrapElement(getOriginal().findElement(by));
   }
 
   @Override
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package ru.stqa.selenium.decorated;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asks the decorated-webdriver-processor to generate, for each listed interface {@code Foo},
+ * two classes in the package of the annotated type:
+ * <ul>
+ *   <li>{@code DecoratedFoo}, a {@link DecoratedChild} that delegates all methods to the original object,</li>
+ *   <li>{@code InterceptedFoo}, an implementation of {@code Foo} that calls the hooks of a {@code DecoratedFoo}
+ *   and its methods directly, without a proxy and without reflective invocation.</li>
+ * </ul>
+ * Example of use:
+ * <code>@GenerateDecorators({WebDriver.Window.class, Alert.class}) class MyDecorators {}</code>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE, ElementType.PACKAGE})
+public @interface GenerateDecorators {
+  Class<?>[] value();
+}
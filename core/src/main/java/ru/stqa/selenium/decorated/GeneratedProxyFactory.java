@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package ru.stqa.selenium.decorated;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.This;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * Generates a proxy class with Byte Buddy. Every method of the generated class is bound to its own interceptor
+ * that already knows the {@link Method} and whether it belongs to a decorated interface, so a call needs neither
+ * a {@link java.lang.reflect.InvocationHandler} nor a lookup in the set of decorated interfaces, and methods
+ * without parameters do not allocate an array of arguments. The hooks take the arguments as an array, so other
+ * methods still pass them boxed. Methods of non-decorated interfaces and unwrapping skip the hooks exactly as
+ * {@link JdkProxyFactory} proxies do. Proxy classes are defined in the class loader of this class, next to it.
+ */
+final class GeneratedProxyFactory implements ProxyFactory {
+
+  private static final String FIELD_NAME = "decorated";
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Decorated.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+  private static final ClassLoadingStrategy<ClassLoader> LOADING_STRATEGY = ClassInjector.UsingLookup.isAvailable()
+    ? ClassLoadingStrategy.UsingLookup.of(MethodHandles.lookup()) : ClassLoadingStrategy.Default.INJECTION;
+
+  private final MethodHandle constructor;
+
+  private GeneratedProxyFactory(final MethodHandle constructor) {
+    this.constructor = constructor;
+  }
+
+  static boolean canImplement(final Class<?>[] interfaces) {
+    for (Class<?> anInterface : interfaces) {
+      if (! Modifier.isPublic(anInterface.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static GeneratedProxyFactory create(final Set<Class<?>> decoratedInterfaces, final Class<?>[] interfaces) {
+    DynamicType.Builder<Object> builder = new ByteBuddy(ClassFileVersion.JAVA_V8)
+      .subclass(Object.class, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+      .name(GeneratedProxyFactory.class.getPackage().getName() + ".$GeneratedProxy" + COUNTER.incrementAndGet())
+      .implement(interfaces)
+      .defineField(FIELD_NAME, Decorated.class, Visibility.PRIVATE, FieldManifestation.FINAL)
+      .defineConstructor(Visibility.PUBLIC).withParameters(Decorated.class)
+      .intercept(MethodCall.invoke(objectConstructor()).andThen(FieldAccessor.ofField(FIELD_NAME).setsArgumentAt(0)));
+
+    int index = 0;
+    for (Method method : JdkProxyFactory.proxiedMethods(interfaces)) {
+      boolean isDecorated = decoratedInterfaces.contains(method.getDeclaringClass());
+      Interceptor interceptor = new Interceptor(method, isDecorated);
+      builder = builder.method(named(method.getName()).and(takesArguments(method.getParameterTypes())))
+        .intercept(MethodDelegation.withDefaultConfiguration()
+          .filter(named(method.getParameterCount() == 0 ? "interceptWithoutArguments" : "intercept"))
+          .to(interceptor, "interceptor$" + index++));
+    }
+
+    Class<?> proxyClass = builder.make()
+      .load(GeneratedProxyFactory.class.getClassLoader(), LOADING_STRATEGY).getLoaded();
+    try {
+      return new GeneratedProxyFactory(MethodHandles.publicLookup()
+        .findConstructor(proxyClass, MethodType.methodType(void.class, Decorated.class))
+        .asType(CONSTRUCTOR_TYPE));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public Object newProxy(final Decorated<?> decorated) {
+    try {
+      return (Object) constructor.invokeExact(decorated);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static java.lang.reflect.Constructor<Object> objectConstructor() {
+    try {
+      return Object.class.getConstructor();
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static final class Interceptor {
+
+    private final MethodDescriptor descriptor;
+    private final boolean isDecorated;
+    private final boolean isEquals;
+    private final boolean isHashCode;
+
+    Interceptor(final Method method, final boolean isDecorated) {
+      this.descriptor = MethodDescriptor.of(method);
+      this.isDecorated = isDecorated;
+      this.isEquals = method.getName().equals("equals") && method.getParameterCount() == 1;
+      this.isHashCode = method.getName().equals("hashCode") && method.getParameterCount() == 0;
+    }
+
+    @RuntimeType
+    public Object interceptWithoutArguments(@FieldValue(FIELD_NAME) Decorated<?> decorated) throws Throwable {
+      // JDK proxies pass null instead of an empty array
+      if (isDecorated) {
+        return Activator.invokeDecorated(decorated, descriptor, null);
+      } else if (isHashCode) {
+        return Activator.invokeHashCode(decorated, descriptor.getMethod());
+      } else {
+        return Activator.invokeOriginal(decorated, descriptor.getMethod(), null);
+      }
+    }
+
+    @RuntimeType
+    public Object intercept(@This Object proxy, @FieldValue(FIELD_NAME) Decorated<?> decorated,
+                            @AllArguments Object[] args) throws Throwable {
+      if (isDecorated) {
+        return Activator.invokeDecorated(decorated, descriptor, args);
+      } else {
+        if (isEquals && args[0] == proxy) {
+          return true;
+        }
+        return Activator.invokeOriginal(decorated, descriptor.getMethod(), args);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package ru.stqa.selenium.decorated;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Creates JDK dynamic proxies through a cached constructor of the proxy class.
+ */
+final class JdkProxyFactory implements ProxyFactory {
+
+  private static final MethodType PROXY_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, InvocationHandler.class);
+
+  private static final MethodHandle NEW_PROXY_INSTANCE;
+  static {
+    try {
+      NEW_PROXY_INSTANCE = MethodHandles.lookup().findStatic(Proxy.class, "newProxyInstance",
+        MethodType.methodType(Object.class, ClassLoader.class, Class[].class, InvocationHandler.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final Set<Class<?>> decoratedInterfaces;
+  // descriptors of the methods that belong to decorated interfaces, other methods go straight to the original
+  private final Map<Method, MethodDescriptor> decoratedMethods;
+  private final MethodHandle constructor;
+
+  private JdkProxyFactory(final Set<Class<?>> decoratedInterfaces, final Map<Method, MethodDescriptor> decoratedMethods,
+                          final MethodHandle constructor) {
+    this.decoratedInterfaces = decoratedInterfaces;
+    this.decoratedMethods = decoratedMethods;
+    this.constructor = constructor;
+  }
+
+  static JdkProxyFactory create(final ClassLoader classLoader, final Set<Class<?>> decoratedInterfaces,
+                                final Class<?>[] interfaces) {
+    Map<Method, MethodDescriptor> decoratedMethods = new HashMap<>();
+    for (Method method : proxiedMethods(interfaces)) {
+      if (decoratedInterfaces.contains(method.getDeclaringClass())) {
+        decoratedMethods.put(method, MethodDescriptor.of(method));
+      }
+    }
+    return new JdkProxyFactory(decoratedInterfaces, decoratedMethods, findProxyConstructor(classLoader, interfaces));
+  }
+
+  @Override
+  public Object newProxy(final Decorated<?> decorated) {
+    final InvocationHandler handler = (proxy, method, args) -> {
+      MethodDescriptor descriptor = decoratedMethods.get(method);
+      if (descriptor == null) {
+        // a proxy may pass a redeclared method of a superinterface instead of the most specific one
+        if (! decoratedInterfaces.contains(method.getDeclaringClass())) {
+          if (args == null && method.getName().equals("hashCode")) {
+            return Activator.invokeHashCode(decorated, method);
+          }
+          if (args != null && args.length == 1 && args[0] == proxy && method.getName().equals("equals")) {
+            return true;
+          }
+          return Activator.invokeOriginal(decorated, method, args);
+        }
+        descriptor = MethodDescriptor.of(method);
+      }
+      return Activator.invokeDecorated(decorated, descriptor, args);
+    };
+
+    try {
+      return (Object) constructor.invokeExact(handler);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // Picks the same Method objects a JDK proxy passes to its handler: equals, hashCode and toString
+  // from Object, then the first interface in the list that contains a method with the given signature.
+  static Collection<Method> proxiedMethods(final Class<?>[] interfaces) {
+    Map<List<Object>, Method> methods = new LinkedHashMap<>();
+    try {
+      for (Method method : Arrays.asList(Object.class.getMethod("equals", Object.class),
+                                         Object.class.getMethod("hashCode"),
+                                         Object.class.getMethod("toString"))) {
+        methods.put(signature(method), method);
+      }
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+    for (Class<?> anInterface : interfaces) {
+      Map<List<Object>, Method> interfaceMethods = new LinkedHashMap<>();
+      for (Method method : anInterface.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers())) {
+          continue;
+        }
+        List<Object> signature = signature(method);
+        Method known = interfaceMethods.get(signature);
+        if (known == null || known.getDeclaringClass().isAssignableFrom(method.getDeclaringClass())) {
+          interfaceMethods.put(signature, method);
+        }
+      }
+      for (Map.Entry<List<Object>, Method> entry : interfaceMethods.entrySet()) {
+        methods.putIfAbsent(entry.getKey(), entry.getValue());
+      }
+    }
+    return methods.values();
+  }
+
+  private static List<Object> signature(final Method method) {
+    List<Object> signature = new ArrayList<>();
+    signature.add(method.getName());
+    signature.addAll(Arrays.asList(method.getParameterTypes()));
+    return signature;
+  }
+
+  private static MethodHandle findProxyConstructor(final ClassLoader classLoader, final Class<?>[] interfaces) {
+    // proxies of the same interfaces share a class, getProxyClass that returns it is deprecated
+    Class<?> proxyClass = Proxy.newProxyInstance(classLoader, interfaces, (proxy, method, args) -> null).getClass();
+    try {
+      return MethodHandles.publicLookup()
+        .findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class))
+        .asType(PROXY_CONSTRUCTOR_TYPE);
+    } catch (ReflectiveOperationException e) {
+      // proxy classes implementing non-public interfaces are not public
+    }
+    try {
+      Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+      constructor.setAccessible(true);
+      return MethodHandles.lookup().unreflectConstructor(constructor).asType(PROXY_CONSTRUCTOR_TYPE);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return MethodHandles.insertArguments(NEW_PROXY_INSTANCE, 0, classLoader, interfaces);
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.HasInputDevices;
+import org.openqa.selenium.interactions.HasTouchScreen;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.TouchScreen;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.interactions.internal.Locatable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable metadata of an intercepted method, computed once per {@link Method}.
+ */
+public final class MethodDescriptor {
+
+  public enum Category {
+    DRIVER, ELEMENT, NAVIGATION, TARGET_LOCATOR, ALERT, OPTIONS, INPUT, OTHER
+  }
+
+  private static final ConcurrentMap<Method, MethodDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+  private static final AtomicInteger IDS = new AtomicInteger();
+
+  private final Method method;
+  private final int id;
+  private final boolean isUnwrap;
+  private final boolean skipsHooks;
+  private final boolean isVoid;
+  private final String beforeEventName;
+  private final String afterEventName;
+  private final Category category;
+
+  private MethodDescriptor(final Method method) {
+    this.method = method;
+    this.id = IDS.getAndIncrement();
+    this.isUnwrap = (method.getName().equals("getOriginal") || method.getName().equals("getInnermostOriginal"))
+      && method.getParameterCount() == 0;
+    this.skipsHooks = isUnwrap || method.getName().equals("addOriginalListener") && method.getParameterCount() == 1;
+    this.isVoid = method.getReturnType() == Void.TYPE || method.getReturnType() == WebDriver.Timeouts.class;
+    String capitalized = method.getName().substring(0, 1).toUpperCase() + method.getName().substring(1);
+    this.beforeEventName = "before" + capitalized;
+    this.afterEventName = "after" + capitalized;
+    this.category = categoryOf(method.getDeclaringClass());
+  }
+
+  public static MethodDescriptor of(final Method method) {
+    MethodDescriptor descriptor = DESCRIPTORS.get(method);
+    if (descriptor == null) {
+      descriptor = DESCRIPTORS.computeIfAbsent(method, MethodDescriptor::new);
+    }
+    return descriptor;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Unique number of the descriptor, small enough to be used as an index in arrays and bit sets.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Whether the method returns the original object of a decorator, such calls bypass the hooks.
+   */
+  public boolean isUnwrap() {
+    return isUnwrap;
+  }
+
+  /**
+   * Whether the method is called on a decorator without the hooks: it unwraps the decorator
+   * or lets another decorator watch its originals.
+   */
+  public boolean skipsHooks() {
+    return skipsHooks;
+  }
+
+  /**
+   * Whether the method has no result worth reporting: it is void or returns {@link WebDriver.Timeouts}
+   * for chaining.
+   */
+  public boolean isVoid() {
+    return isVoid;
+  }
+
+  public String getBeforeEventName() {
+    return beforeEventName;
+  }
+
+  public String getAfterEventName() {
+    return afterEventName;
+  }
+
+  public Category getCategory() {
+    return category;
+  }
+
+  private static Category categoryOf(final Class<?> declaringClass) {
+    if (declaringClass == WebDriver.class || declaringClass == JavascriptExecutor.class
+        || declaringClass == HasInputDevices.class || declaringClass == HasTouchScreen.class) {
+      return Category.DRIVER;
+    }
+    if (declaringClass == WebElement.class || declaringClass == Locatable.class
+        || declaringClass == Coordinates.class) {
+      return Category.ELEMENT;
+    }
+    if (declaringClass == WebDriver.Navigation.class) {
+      return Category.NAVIGATION;
+    }
+    if (declaringClass == WebDriver.TargetLocator.class) {
+      return Category.TARGET_LOCATOR;
+    }
+    if (declaringClass == Alert.class) {
+      return Category.ALERT;
+    }
+    if (declaringClass == WebDriver.Options.class || declaringClass == WebDriver.Timeouts.class
+        || declaringClass == WebDriver.Window.class) {
+      return Category.OPTIONS;
+    }
+    if (declaringClass == Keyboard.class || declaringClass == Mouse.class || declaringClass == TouchScreen.class) {
+      return Category.INPUT;
+    }
+    return Category.OTHER;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MethodDescriptor {%s #%d}", method, id);
+  }
+}
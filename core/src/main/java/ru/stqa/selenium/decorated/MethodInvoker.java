@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package ru.stqa.selenium.decorated;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Invokes methods through cached spreading {@link MethodHandle}s instead of {@link Method#invoke}.
+ * Exceptions thrown by the invoked method are wrapped into {@link InvocationTargetException},
+ * just like the reflective invocation does, but the wrapper does not fill in a stack trace.
+ */
+final class MethodInvoker {
+
+  private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private static final ConcurrentMap<Method, Invoker> INVOKERS = new ConcurrentHashMap<>();
+
+  private MethodInvoker() {}
+
+  static Object invoke(final Method method, final Object target, final Object[] args) throws Throwable {
+    Invoker invoker = INVOKERS.get(method);
+    if (invoker == null) {
+      invoker = INVOKERS.computeIfAbsent(method, Invoker::new);
+    }
+    if (invoker.handle == null) {
+      return method.invoke(target, args);
+    }
+    // failures of the call itself are thrown as is, only exceptions of the target are wrapped
+    invoker.checkCall(target, args);
+    try {
+      return invoker.handle.invokeExact(target, args);
+    } catch (Throwable t) {
+      throw new TargetInvocationException(t);
+    }
+  }
+
+  private static final class Invoker {
+
+    private final Method method;
+    // null for methods that can't be unreflected, they are invoked reflectively
+    private final MethodHandle handle;
+    private final Class<?>[] parameterTypes;
+    // parameter types with primitives boxed
+    private final Class<?>[] argumentTypes;
+
+    private Invoker(final Method method) {
+      this.method = method;
+      this.handle = createHandle(method);
+      this.parameterTypes = method.getParameterTypes();
+      this.argumentTypes = MethodType.methodType(void.class, parameterTypes).wrap().parameterArray();
+    }
+
+    // the same checks the reflective invocation makes before calling the method
+    private void checkCall(final Object target, final Object[] args) {
+      if (target == null) {
+        throw new NullPointerException("Cannot invoke " + method + " on null");
+      }
+      if (! method.getDeclaringClass().isInstance(target)) {
+        throw new IllegalArgumentException("Object is not an instance of " + method.getDeclaringClass().getName());
+      }
+      int count = args == null ? 0 : args.length;
+      if (count != parameterTypes.length) {
+        throw new IllegalArgumentException("Wrong number of arguments: " + count + ", expected " + parameterTypes.length);
+      }
+      for (int i = 0; i < count; i++) {
+        Object arg = args[i];
+        if (arg == null ? parameterTypes[i].isPrimitive() : ! argumentTypes[i].isInstance(arg)) {
+          throw new IllegalArgumentException("Argument type mismatch at position " + i);
+        }
+      }
+    }
+
+    private static MethodHandle createHandle(final Method method) {
+      try {
+        return MethodHandles.lookup().unreflect(method)
+          .asFixedArity()
+          .asSpreader(Object[].class, method.getParameterCount())
+          .asType(SPREAD_TYPE);
+      } catch (IllegalAccessException e) {
+        return null;
+      }
+    }
+  }
+
+}
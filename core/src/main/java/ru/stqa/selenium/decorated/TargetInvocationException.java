@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A wrapper that only carries the target exception to the error hooks, it never leaves the decorators,
+ * so it does not need a stack trace of its own.
+ */
+final class TargetInvocationException extends InvocationTargetException {
+
+  private static final long serialVersionUID = 1L;
+
+  TargetInvocationException(final Throwable target) {
+    super(target);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
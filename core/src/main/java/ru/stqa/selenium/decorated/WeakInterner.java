@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Keeps one value per key as long as the value is reachable from elsewhere.
+ */
+final class WeakInterner<K, V> {
+
+  private final ConcurrentMap<K, ValueReference<K, V>> values = new ConcurrentHashMap<>();
+  private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+  V intern(final K key, final Function<? super K, ? extends V> factory) {
+    expungeStaleEntries();
+    ValueReference<K, V> reference = values.get(key);
+    V value = reference != null ? reference.get() : null;
+    if (value != null) {
+      return value;
+    }
+
+    V created = factory.apply(key);
+    ValueReference<K, V> createdReference = new ValueReference<>(key, created, queue);
+    while (true) {
+      ValueReference<K, V> existing = values.putIfAbsent(key, createdReference);
+      if (existing == null) {
+        return created;
+      }
+      V existingValue = existing.get();
+      if (existingValue != null) {
+        return existingValue;
+      }
+      if (values.replace(key, existing, createdReference)) {
+        return created;
+      }
+    }
+  }
+
+  int size() {
+    expungeStaleEntries();
+    return values.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void expungeStaleEntries() {
+    Reference<? extends V> reference;
+    while ((reference = queue.poll()) != null) {
+      ValueReference<K, V> valueReference = (ValueReference<K, V>) reference;
+      values.remove(valueReference.key, valueReference);
+    }
+  }
+
+  private static final class ValueReference<K, V> extends WeakReference<V> {
+
+    private final K key;
+
+    ValueReference(final K key, final V value, final ReferenceQueue<V> queue) {
+      super(value, queue);
+      this.key = key;
+    }
+  }
+}
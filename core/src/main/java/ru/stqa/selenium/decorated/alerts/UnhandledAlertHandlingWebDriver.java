@@ -16,14 +16,12 @@
  */
 package ru.stqa.selenium.decorated.alerts;
 
-import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import org.openqa.selenium.UnhandledAlertException;
 import org.openqa.selenium.WebDriver;
 import ru.stqa.selenium.decorated.Decorated;
 import ru.stqa.selenium.decorated.DecoratedWebDriver;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -46,17 +44,11 @@ public class UnhandledAlertHandlingWebDriver extends DecoratedWebDriver {
   }
 
   @Override
-  public Object onErrorGlobal(Decorated<?> target, Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    Throwable te = e.getTargetException();
-    if (te instanceof UnhandledAlertException) {
-      handleUnhandledAlert((UnhandledAlertException) te);
-      // try again
-      try {
-        return callMethodGlobal(target, method, args);
-      } catch (InvocationTargetException e1) {
-        throw Throwables.propagate(e1.getTargetException());
-      }
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+    if (error instanceof UnhandledAlertException) {
+      handleUnhandledAlert((UnhandledAlertException) error);
+      return RETRY;
     }
-    throw Throwables.propagate(te);
+    return super.onErrorGlobal(target, method, error, args);
   }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.composite;
+
+import org.openqa.selenium.WebDriver;
+import ru.stqa.selenium.decorated.Decorated;
+import ru.stqa.selenium.decorated.DecoratedWebDriver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs the hooks of several decorators in a single decorator, so that every object is wrapped in one proxy
+ * instead of one proxy per layer.
+ * Example of use:
+ * <code>WebDriver driver = CompositeWebDriver.builder(originalDriver)<br>
+ *   .add(LoggingWebDriver::new)<br>
+ *   .add(EventFiringWebDriver::new)<br>
+ *   .build().getActivated();</code>
+ * is an equivalent of <code>new LoggingWebDriver(new EventFiringWebDriver(originalDriver).getActivated()).getActivated()</code>.
+ * <p>
+ * Layers are listed from the outermost to the innermost one. Each layer runs its hooks, including
+ * {@code callMethodGlobal}, around the inner layers exactly as a nested decorator does around the inner proxy:
+ * an error is passed to the innermost layer first, a value returned by its error hook goes to the after hooks
+ * of the outer layers, and a call retried by a layer runs the hooks of the inner layers again. Method filters
+ * of the layers are respected.
+ * <p>
+ * Only the hooks of the layers are used: layers that override WebDriver methods or {@code createDecorated}
+ * (like stale tolerant or implicitly waiting drivers) should still be nested.
+ */
+public class CompositeWebDriver extends DecoratedWebDriver {
+
+  private final List<DecoratedWebDriver> layers;
+
+  protected CompositeWebDriver(final WebDriver driver, final List<DecoratedWebDriver> layers) {
+    super(driver);
+    this.layers = Collections.unmodifiableList(new ArrayList<>(layers));
+    for (int i = 0; i < layers.size() - 1; i++) {
+      DecoratedWebDriver inner = layers.get(i + 1);
+      layers.get(i).setInnerLayer(inner::callAsLayer);
+    }
+  }
+
+  public static Builder builder(final WebDriver driver) {
+    return new Builder(driver);
+  }
+
+  public List<DecoratedWebDriver> getLayers() {
+    return layers;
+  }
+
+  public <L extends DecoratedWebDriver> L getLayer(final Class<L> layerClass) {
+    for (DecoratedWebDriver layer : layers) {
+      if (layerClass.isInstance(layer)) {
+        return layerClass.cast(layer);
+      }
+    }
+    throw new IllegalArgumentException("No layer of class " + layerClass.getName());
+  }
+
+  @Override
+  public Object callMethodGlobal(Decorated<?> target, Method method, Object[] args) throws Throwable {
+    if (layers.isEmpty()) {
+      return super.callMethodGlobal(target, method, args);
+    }
+    try {
+      return layers.get(0).callAsLayer(target, method, args);
+    } catch (InvocationTargetException e) {
+      // the outermost layer has already handled the error
+      throw e.getTargetException();
+    }
+  }
+
+  // methods of interfaces that are not decorated skip the hooks, their errors are passed through the layers
+  @Override
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+    if (layers.isEmpty()) {
+      return super.onErrorGlobal(target, method, error, args);
+    }
+    Throwable current = error;
+    for (int i = layers.size() - 1; i >= 0; i--) {
+      try {
+        return layers.get(i).onErrorGlobal(target, method, current, args);
+      } catch (Throwable t) {
+        current = t;
+      }
+    }
+    throw current;
+  }
+
+  public static class Builder {
+
+    private final WebDriver driver;
+    private final List<Function<WebDriver, ? extends DecoratedWebDriver>> layers = new ArrayList<>();
+
+    private Builder(final WebDriver driver) {
+      this.driver = driver;
+    }
+
+    /**
+     * Adds a layer inside the previously added ones, the factory gets the original driver.
+     */
+    public Builder add(final Function<WebDriver, ? extends DecoratedWebDriver> layer) {
+      layers.add(layer);
+      return this;
+    }
+
+    public CompositeWebDriver build() {
+      List<DecoratedWebDriver> created = new ArrayList<>();
+      for (Function<WebDriver, ? extends DecoratedWebDriver> layer : layers) {
+        created.add(layer.apply(driver));
+      }
+      return new CompositeWebDriver(driver, created);
+    }
+  }
+}
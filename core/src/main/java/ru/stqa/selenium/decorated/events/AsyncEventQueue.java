@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded buffer of events delivered in order on a dedicated daemon thread. Exceptions thrown
+ * while delivering an event are passed to the uncaught exception handler of the consumer thread
+ * and do not stop the delivery of the following events. Events submitted while an event is being
+ * delivered, by a listener that calls the driver, are queued behind the events submitted before
+ * them without waiting for room in the buffer.
+ */
+final class AsyncEventQueue {
+
+  static final int SAMPLE_RATE = 10;
+
+  private static final long CLOSED_POLL_MILLIS = 10;
+
+  private static final Runnable WAKE_UP = () -> {};
+
+  private final BlockingQueue<Runnable> buffer = new LinkedBlockingQueue<>();
+  // room in the buffer for events of other threads, it is made when the consumer takes an event out
+  private final Semaphore room;
+  private final Backpressure backpressure;
+  private final Thread consumer;
+  private final AtomicLong overflowed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  // submitters check that the queue is open and enqueue under the read lock, closing takes the write lock,
+  // so no event of another thread can get into the buffer after it has been drained
+  private final ReadWriteLock closing = new ReentrantReadWriteLock();
+  private volatile boolean closed;
+
+  // number of submitted events that are not delivered yet, guarded by this
+  private long pending;
+
+  AsyncEventQueue(final int capacity, final Backpressure backpressure, final String name) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.room = new Semaphore(capacity);
+    this.backpressure = backpressure;
+    this.consumer = new Thread(this::consume, name);
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  Backpressure getBackpressure() {
+    return backpressure;
+  }
+
+  /**
+   * Returns false if the event has been dropped for lack of room.
+   */
+  boolean submit(final Runnable event) {
+    if (Thread.currentThread() == consumer) {
+      // the consumer thread can't wait for room it makes itself
+      synchronized (this) {
+        pending++;
+      }
+      buffer.add(new ConsumerEvent(event));
+      return true;
+    }
+    closing.readLock().lock();
+    try {
+      if (! closed) {
+        return enqueue(event);
+      }
+    } finally {
+      closing.readLock().unlock();
+    }
+    // the events submitted before the queue was closed are delivered first
+    awaitTermination();
+    event.run();
+    return true;
+  }
+
+  private boolean enqueue(final Runnable event) {
+    synchronized (this) {
+      pending++;
+    }
+    if (room.tryAcquire() || (mustWait() && waitForRoom())) {
+      buffer.add(event);
+      return true;
+    }
+    dropped.incrementAndGet();
+    delivered();
+    return false;
+  }
+
+  private boolean mustWait() {
+    return backpressure == Backpressure.BLOCK
+      || (backpressure == Backpressure.SAMPLE && overflowed.incrementAndGet() % SAMPLE_RATE == 0);
+  }
+
+  private boolean waitForRoom() {
+    try {
+      room.acquire();
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Waits until all the events submitted so far are delivered.
+   */
+  synchronized boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (pending > 0) {
+      long left = deadline - System.nanoTime();
+      if (left <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, left);
+    }
+    return true;
+  }
+
+  /**
+   * Delivers the events submitted so far and stops the consumer thread. Events submitted while the events
+   * are being delivered wait for them, events submitted after that are delivered in the submitting thread.
+   * A listener that closes the queue in the consumer thread does not wait, the consumer stops by itself
+   * once the buffer is drained.
+   */
+  void close() {
+    if (Thread.currentThread() == consumer) {
+      closed = true;
+      return;
+    }
+    closing.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closing.writeLock().unlock();
+    }
+    buffer.add(WAKE_UP);
+    awaitTermination();
+  }
+
+  /**
+   * Whether the queue has been closed and all the events submitted before have been delivered.
+   */
+  boolean isTerminated() {
+    return closed && ! consumer.isAlive();
+  }
+
+  private void awaitTermination() {
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void consume() {
+    while (true) {
+      Runnable event;
+      try {
+        event = closed ? buffer.poll(CLOSED_POLL_MILLIS, TimeUnit.MILLISECONDS) : buffer.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (event == null || event == WAKE_UP) {
+        if (closed && isDrained()) {
+          return;
+        }
+        continue;
+      }
+      if (event instanceof ConsumerEvent) {
+        event = ((ConsumerEvent) event).event;
+      } else {
+        room.release();
+      }
+      try {
+        event.run();
+      } catch (Throwable t) {
+        consumer.getUncaughtExceptionHandler().uncaughtException(consumer, t);
+      }
+      delivered();
+    }
+  }
+
+  // nobody can enqueue an event while the write lock is held by the consumer after the queue is closed
+  private boolean isDrained() {
+    if (! closing.writeLock().tryLock()) {
+      return false;
+    }
+    try {
+      return buffer.isEmpty();
+    } finally {
+      closing.writeLock().unlock();
+    }
+  }
+
+  private synchronized void delivered() {
+    if (--pending == 0) {
+      notifyAll();
+    }
+  }
+
+  // an event submitted by the consumer thread, it has taken no room in the buffer
+  private static final class ConsumerEvent implements Runnable {
+    private final Runnable event;
+
+    ConsumerEvent(final Runnable event) {
+      this.event = event;
+    }
+
+    @Override
+    public void run() {
+      event.run();
+    }
+  }
+}
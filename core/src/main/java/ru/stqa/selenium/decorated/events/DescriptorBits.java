@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import java.util.Arrays;
+
+/**
+ * Lazily resolved boolean property of method descriptors (or of their before and after events),
+ * kept in a bit set indexed by descriptor ids, two bits per index: resolved and value.
+ */
+final class DescriptorBits {
+
+  static final int UNKNOWN = -1;
+
+  // copied on write, a lost update only makes an index to be resolved once more
+  private volatile long[] bits = new long[0];
+
+  /**
+   * Returns 1 or 0 if the value at the index is resolved, {@link #UNKNOWN} otherwise.
+   */
+  int get(final int index) {
+    long[] current = bits;
+    int word = index >>> 5;
+    if (word < current.length) {
+      long state = current[word] >>> ((index & 31) << 1);
+      if ((state & 1L) != 0) {
+        return (int) (state >>> 1) & 1;
+      }
+    }
+    return UNKNOWN;
+  }
+
+  synchronized boolean set(final int index, final boolean value) {
+    int word = index >>> 5;
+    long[] updated = Arrays.copyOf(bits, Math.max(bits.length, word + 1));
+    updated[word] |= (value ? 3L : 1L) << ((index & 31) << 1);
+    bits = updated;
+    return value;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects events into preallocated arrays of records and delivers them when the batch is full or
+ * older than the maximum age. The age is checked when an event is added, so a batch of an idle driver
+ * is delivered by the next event or an explicit {@link #flush}.
+ * <p>
+ * A batch is swapped for an empty one under the lock and delivered after the lock is released, so events
+ * can be added while a batch is being delivered, by other threads or by the listeners themselves.
+ * Batches are delivered in order, one at a time, by the thread that has filled a batch unless another
+ * thread is delivering batches already, then that thread delivers it too.
+ */
+final class EventBatcher {
+
+  private final int maxSize;
+  private final long maxAgeNanos;
+
+  // guarded by this
+  private Batch current;
+  private Batch spare;
+  private final Queue<Batch> filled = new ArrayDeque<>();
+  private long firstNanos;
+  private boolean retired;
+
+  private final ReentrantLock delivery = new ReentrantLock();
+
+  EventBatcher(final int maxSize, final long maxAgeNanos) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.maxAgeNanos = maxAgeNanos;
+    this.current = new Batch(maxSize);
+  }
+
+  /**
+   * Adds an event, returns false if the batcher has been retired and the event must be added to its
+   * replacement.
+   */
+  boolean add(final List<WebDriverEventBatchListener> listeners, final MethodDescriptor descriptor,
+              final Object target, final Object[] args, final Object result, final Throwable failure,
+              final long startNanos, final long durationNanos) {
+    synchronized (this) {
+      if (retired) {
+        return false;
+      }
+      long now = System.nanoTime();
+      if (current.count == 0) {
+        firstNanos = now;
+      }
+      current.records[current.count++].set(descriptor, target, args, result, failure, startNanos, durationNanos);
+      if (current.count < maxSize && now - firstNanos < maxAgeNanos) {
+        return true;
+      }
+      swap();
+    }
+    deliver(listeners);
+    return true;
+  }
+
+  /**
+   * Delivers the events collected so far and rejects the events added after that.
+   */
+  void retire(final List<WebDriverEventBatchListener> listeners) {
+    synchronized (this) {
+      retired = true;
+      swap();
+    }
+    deliver(listeners);
+  }
+
+  void flush(final List<WebDriverEventBatchListener> listeners) {
+    synchronized (this) {
+      swap();
+    }
+    deliver(listeners);
+  }
+
+  // guarded by this
+  private void swap() {
+    if (current.count == 0) {
+      return;
+    }
+    filled.add(current);
+    current = spare != null ? spare : new Batch(maxSize);
+    spare = null;
+  }
+
+  private void deliver(final List<WebDriverEventBatchListener> listeners) {
+    // a listener that adds events gets its batch delivered once it returns
+    if (delivery.isHeldByCurrentThread()) {
+      return;
+    }
+    // a batch filled after the delivering thread has found none is delivered by the thread that filled it
+    while (hasFilled() && delivery.tryLock()) {
+      try {
+        Batch batch;
+        while ((batch = nextFilled()) != null) {
+          deliver(listeners, batch);
+        }
+      } finally {
+        delivery.unlock();
+      }
+    }
+  }
+
+  private void deliver(final List<WebDriverEventBatchListener> listeners, final Batch batch) {
+    try {
+      List<WebDriverEvent> events = batch.count == maxSize ? batch.view : batch.view.subList(0, batch.count);
+      for (WebDriverEventBatchListener listener : listeners) {
+        listener.onEvents(events);
+      }
+    } finally {
+      batch.clear();
+      synchronized (this) {
+        if (spare == null) {
+          spare = batch;
+        }
+      }
+    }
+  }
+
+  private synchronized boolean hasFilled() {
+    return ! filled.isEmpty();
+  }
+
+  private synchronized Batch nextFilled() {
+    return filled.poll();
+  }
+
+  private static final class Batch {
+    private final WebDriverEvent[] records;
+    private final List<WebDriverEvent> view;
+    private int count;
+
+    Batch(final int size) {
+      this.records = new WebDriverEvent[size];
+      for (int i = 0; i < size; i++) {
+        records[i] = new WebDriverEvent();
+      }
+      this.view = Collections.unmodifiableList(Arrays.asList(records));
+    }
+
+    void clear() {
+      for (int i = 0; i < count; i++) {
+        records[i].clear();
+      }
+      count = 0;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import org.openqa.selenium.By;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Restricts the events delivered to a listener, see
+ * {@link EventFiringWebDriver#addListener(WebDriverListener, int, EventFilter)}. The checks that depend
+ * only on the method are evaluated once per method, the checks of the target and the locator on every call,
+ * but before any event arguments are built.
+ * <p>
+ * <code>EventFilter.builder().categories(Category.ELEMENT).excludeMethods("getWindowHandle").build()</code>
+ */
+public final class EventFilter {
+
+  private final Set<MethodDescriptor.Category> categories;
+  private final Set<String> excludedMethods;
+  private final Class<?>[] targetTypes;
+  private final Class<?>[] locatorTypes;
+  private final DescriptorBits accepted = new DescriptorBits();
+
+  private EventFilter(Builder builder) {
+    this.categories = builder.categories;
+    this.excludedMethods = builder.excludedMethods;
+    this.targetTypes = builder.targetTypes;
+    this.locatorTypes = builder.locatorTypes;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Checks the method of a call, the original object it is called on and its arguments.
+   */
+  boolean accepts(final MethodDescriptor descriptor, final Object target, final Object[] args) {
+    int state = accepted.get(descriptor.getId());
+    if (state == DescriptorBits.UNKNOWN) {
+      state = accepted.set(descriptor.getId(), acceptsMethod(descriptor)) ? 1 : 0;
+    }
+    return state == 1 && acceptsTarget(target) && acceptsLocator(args);
+  }
+
+  private boolean acceptsMethod(final MethodDescriptor descriptor) {
+    return (categories == null || categories.contains(descriptor.getCategory()))
+      && ! excludedMethods.contains(descriptor.getMethod().getName());
+  }
+
+  private boolean acceptsTarget(final Object target) {
+    return targetTypes == null || isInstance(targetTypes, target);
+  }
+
+  // calls without a locator are accepted
+  private boolean acceptsLocator(final Object[] args) {
+    if (locatorTypes == null || args == null) {
+      return true;
+    }
+    for (Object arg : args) {
+      if (arg instanceof By && ! isInstance(locatorTypes, arg)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isInstance(final Class<?>[] types, final Object obj) {
+    for (Class<?> type : types) {
+      if (type.isInstance(obj)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("EventFilter {categories %s, excluded %s, targets %s, locators %s}", categories,
+      excludedMethods, targetTypes == null ? null : Arrays.asList(targetTypes),
+      locatorTypes == null ? null : Arrays.asList(locatorTypes));
+  }
+
+  public static class Builder {
+
+    private Set<MethodDescriptor.Category> categories;
+    private Set<String> excludedMethods = Collections.emptySet();
+    private Class<?>[] targetTypes;
+    private Class<?>[] locatorTypes;
+
+    private Builder() {}
+
+    /**
+     * Accepts only methods of the given categories.
+     */
+    public Builder categories(final MethodDescriptor.Category first, final MethodDescriptor.Category... rest) {
+      categories = EnumSet.of(first, rest);
+      return this;
+    }
+
+    /**
+     * Rejects methods with the given names.
+     */
+    public Builder excludeMethods(final String... names) {
+      excludedMethods = new HashSet<>(Arrays.asList(names));
+      return this;
+    }
+
+    /**
+     * Accepts only calls on original objects of the given types, like {@code WebElement.class}.
+     */
+    public Builder targetTypes(final Class<?>... types) {
+      targetTypes = types.clone();
+      return this;
+    }
+
+    /**
+     * Accepts only calls with locators of the given types, like {@code By.ById.class}.
+     * Calls without a locator are not affected.
+     */
+    public Builder locatorTypes(final Collection<Class<? extends By>> types) {
+      locatorTypes = types.toArray(new Class<?>[types.size()]);
+      return this;
+    }
+
+    public EventFilter build() {
+      return new EventFilter(this);
+    }
+  }
+}
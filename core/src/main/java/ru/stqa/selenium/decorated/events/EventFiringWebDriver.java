@@ -16,27 +16,58 @@
 
 package ru.stqa.selenium.decorated.events;
 
-import com.google.common.base.Throwables;
-import com.google.common.primitives.Primitives;
 import org.openqa.selenium.WebDriver;
 import ru.stqa.selenium.decorated.Decorated;
 import ru.stqa.selenium.decorated.DecoratedWebDriver;
+import ru.stqa.selenium.decorated.MethodDescriptor;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class EventFiringWebDriver extends DecoratedWebDriver {
 
-  private Set<WebDriverListener> listeners = new HashSet<>();
+  // start and duration of the last call made through this driver in the current thread, zeros if it was not timed
+  private final ThreadLocal<long[]> lastCall = ThreadLocal.withInitial(() -> new long[2]);
+  private final ListenerRegistry listeners = new ListenerRegistry();
+  private volatile AsyncEventQueue asyncQueue;
+  private final CopyOnWriteArrayList<WebDriverEventBatchListener> batchListeners = new CopyOnWriteArrayList<>();
+  private volatile EventBatcher batcher = new EventBatcher(100, TimeUnit.SECONDS.toNanos(1));
+  private volatile ListenerPolicy listenerPolicy;
+  private volatile AsyncEventQueue demotedQueue;
+  private int demotedCapacity = 1024;
+  private Backpressure demotedBackpressure = Backpressure.DROP;
 
   public EventFiringWebDriver(final WebDriver driver) {
     super(driver);
   }
 
   public void addListener(WebDriverListener listener) {
-    listeners.add(listener);
+    addListener(listener, 0);
+  }
+
+  /**
+   * Adds a listener with the given priority. Listeners with higher priority are notified first,
+   * listeners with the same priority are notified in order of registration. Adding a listener that
+   * is already registered changes its priority. It is safe to add and remove listeners while
+   * events are being fired in other threads.
+   */
+  public void addListener(WebDriverListener listener, int priority) {
+    listeners.add(listener, priority, null);
+  }
+
+  public void addListener(WebDriverListener listener, EventFilter filter) {
+    addListener(listener, 0, filter);
+  }
+
+  /**
+   * Adds a listener with the given priority that receives only the events accepted by the filter.
+   * Adding a listener that is already registered changes its priority and filter.
+   */
+  public void addListener(WebDriverListener listener, int priority, EventFilter filter) {
+    listeners.add(listener, priority, filter);
   }
 
   public void removeListener(WebDriverListener listener) {
@@ -47,43 +78,314 @@ public class EventFiringWebDriver extends DecoratedWebDriver {
     listeners.clear();
   }
 
+  /**
+   * Sets the policy applied to listeners that are too slow or fail too often, null to keep all listeners
+   * active whatever they cost. Demoted listeners are made active again by the policy once they keep within
+   * its budget, disabled listeners stay so. Add a listener again to reactivate it right away.
+   */
+  public void setListenerPolicy(ListenerPolicy policy) {
+    this.listenerPolicy = policy;
+  }
+
+  /**
+   * Time spent by each listener handling events, in the order listeners are notified.
+   */
+  public List<ListenerCost> getListenerCosts() {
+    List<ListenerCost> costs = new ArrayList<>();
+    for (ListenerRegistry.Entry entry : listeners.get().entries) {
+      costs.add(entry.cost());
+    }
+    return costs;
+  }
+
+  public void addBatchListener(WebDriverEventBatchListener listener) {
+    batchListeners.addIfAbsent(listener);
+  }
+
+  public void removeBatchListener(WebDriverEventBatchListener listener) {
+    batchListeners.remove(listener);
+  }
+
+  /**
+   * Sets the maximum size and age of event batches delivered to batch listeners, 100 events and
+   * 1 second by default. The age of a batch is checked when an event is added to it. Events collected
+   * so far are delivered first.
+   */
+  public synchronized void setEventBatching(int maxSize, long maxAge, TimeUnit unit) {
+    // events recorded concurrently into the old batcher after it is retired go to the new one
+    EventBatcher oldBatcher = batcher;
+    batcher = new EventBatcher(maxSize, unit.toNanos(maxAge));
+    oldBatcher.retire(batchListeners);
+  }
+
+  private void addToBatch(MethodDescriptor descriptor, Object target, Object[] args, Object result,
+                          Throwable failure, long startNanos, long durationNanos) {
+    while (! batcher.add(batchListeners, descriptor, target, args, result, failure, startNanos, durationNanos)) {
+      // the batcher has just been replaced, the volatile field holds the new one
+    }
+  }
+
+  /**
+   * Delivers the events collected so far to batch listeners without waiting for the batch to fill up.
+   */
+  public void flushEvents() {
+    batcher.flush(batchListeners);
+  }
+
+  /**
+   * Delivers after-events on a dedicated thread through a buffer of the given capacity, in the order
+   * they are fired. Before-events are still delivered synchronously. Exceptions thrown by listeners
+   * on the delivery thread are passed to its uncaught exception handler. The delivery thread stops
+   * when the driver quits or async delivery is disabled.
+   */
+  public synchronized void enableAsyncAfterEvents(int capacity, Backpressure backpressure) {
+    AsyncEventQueue queue = new AsyncEventQueue(capacity, backpressure, "EventFiringWebDriver after-events");
+    disableAsyncAfterEvents();
+    asyncQueue = queue;
+  }
+
+  /**
+   * Delivers the pending after-events and switches back to synchronous delivery. After-events fired
+   * meanwhile are delivered after the pending ones.
+   */
+  public synchronized void disableAsyncAfterEvents() {
+    AsyncEventQueue queue = asyncQueue;
+    if (queue != null) {
+      queue.close();
+      // a listener that disables async delivery on the delivery thread can't wait for the pending events,
+      // the closed queue keeps later events behind them
+      if (queue.isTerminated()) {
+        asyncQueue = null;
+      }
+    }
+  }
+
+  /**
+   * Sets the capacity and backpressure of the buffer of events of listeners demoted to async delivery
+   * by the {@link #setListenerPolicy listener policy}, 1024 events and {@link Backpressure#DROP} by default.
+   * Events pending in the current buffer are delivered first.
+   */
+  public synchronized void setDemotedListenerBuffer(int capacity, Backpressure backpressure) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    demotedCapacity = capacity;
+    demotedBackpressure = backpressure;
+    AsyncEventQueue queue = demotedQueue;
+    if (queue != null) {
+      AsyncEventQueue replacement = newDemotedQueue();
+      queue.close();
+      demotedQueue = replacement;
+    }
+  }
+
+  /**
+   * Waits until the after-events fired so far, and the events of listeners demoted to async delivery,
+   * are delivered. Returns false if the timeout elapses first.
+   */
+  public boolean awaitAfterEvents(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    AsyncEventQueue queue = asyncQueue;
+    if (queue != null && ! queue.await(timeout, unit)) {
+      return false;
+    }
+    AsyncEventQueue demoted = demotedQueue;
+    return demoted == null || demoted.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Number of events dropped because a buffer was full: after-events dropped since async delivery was enabled
+   * and events of demoted listeners.
+   */
+  public long getDroppedAfterEvents() {
+    AsyncEventQueue queue = asyncQueue;
+    AsyncEventQueue demoted = demotedQueue;
+    return (queue == null ? 0 : queue.getDropped()) + (demoted == null ? 0 : demoted.getDropped());
+  }
+
   @Override
   public void beforeMethodGlobal(Decorated<?> target, Method method, Object[] args) {
-    for (WebDriverListener listener : listeners) {
-      fireBeforeEvent(listener, target, method, args);
+    ListenerRegistry.Snapshot snapshot = listeners.get();
+    MethodDescriptor descriptor = snapshot.events.isEmpty() ? null : MethodDescriptor.of(method);
+    if (descriptor == null || ! snapshot.events.hasBefore(descriptor)) {
+      super.beforeMethodGlobal(target, method, args);
+      return;
+    }
+    Object[] eventArgs = null;
+    for (ListenerRegistry.Entry entry : snapshot.entries) {
+      ListenerCost.State state = entry.state;
+      if (state == ListenerCost.State.DISABLED
+          || (entry.filter != null && ! entry.filter.accepts(descriptor, target.getOriginal(), args))) {
+        continue;
+      }
+      ListenerMethods.Handler[] handlers = ListenerMethods.of(entry.listener.getClass()).before(descriptor);
+      if (handlers.length > 0) {
+        if (eventArgs == null) {
+          eventArgs = beforeEventArgs(target, args);
+        }
+        if (entry.isDeliveredAsync(state)) {
+          Object[] demotedArgs = eventArgs;
+          submitDemoted(entry, () -> fireEvent(entry, descriptor.getBeforeEventName(), handlers, demotedArgs));
+        } else {
+          fireEvent(entry, descriptor.getBeforeEventName(), handlers, eventArgs);
+        }
+      }
     }
     super.beforeMethodGlobal(target, method, args);
   }
 
-  private void fireBeforeEvent(WebDriverListener listener, Decorated<?> target, Method method, Object[] args) {
-    String methodName = createEventMethodName("before", method.getName());
-
+  private Object[] beforeEventArgs(Decorated<?> target, Object[] args) {
     int argsLength = args != null ? args.length : 0;
     Object[] args2 = new Object[argsLength + 1];
     args2[0] = target.getOriginal();
     for (int i = 0; i < argsLength; i++) {
       args2[i + 1] = args[i];
     }
+    return args2;
+  }
 
-    Method m = findMatchingMethod(listener, methodName, args2);
-    if (m != null) {
-      callListenerMethod(m, listener, args2);
+  @Override
+  public Object callMethodGlobal(Decorated<?> target, Method method, Object[] args) throws Throwable {
+    if (isQuit(method) && ! isIntercepted(method)) {
+      // the after hook is skipped, the listeners and queues are released here
+      Object res = super.callMethodGlobal(target, method, args);
+      releaseOnQuit();
+      return res;
+    }
+    long[] timing = lastCall.get();
+    if (batchListeners.isEmpty() && ! listeners.get().events.hasAfterAnyCall()) {
+      // listeners added during the call get no timing rather than the timing of an earlier call
+      timing[0] = 0;
+      timing[1] = 0;
+      return super.callMethodGlobal(target, method, args);
+    }
+    long start = System.nanoTime();
+    try {
+      return super.callMethodGlobal(target, method, args);
+    } finally {
+      timing[0] = start;
+      timing[1] = System.nanoTime() - start;
     }
   }
 
   @Override
   public void afterMethodGlobal(Decorated<?> target, Method method, Object res, Object[] args) {
     super.afterMethodGlobal(target, method, res, args);
-    for (WebDriverListener listener : listeners) {
-      fireAfterEvent(listener, target, method, res, args);
+    // listeners may call the driver, read the timing of this call before notifying them
+    long[] timing = lastCall.get();
+    long start = timing[0];
+    long nanos = timing[1];
+    if (! batchListeners.isEmpty()) {
+      addToBatch(MethodDescriptor.of(method), target.getOriginal(), args, res, null, start, nanos);
+    }
+    ListenerRegistry.Snapshot snapshot = listeners.get();
+    MethodDescriptor descriptor = snapshot.events.isEmpty() ? null : MethodDescriptor.of(method);
+    boolean hasAfter = descriptor != null && snapshot.events.hasAfter(descriptor);
+    boolean timed = snapshot.events.hasAfterAnyCall();
+    if ((hasAfter || timed) && snapshot.accepts(descriptor, target.getOriginal(), args)) {
+      AfterEvent event = new AfterEvent(descriptor, hasAfter ? afterEventArgs(target, descriptor, res, args) : null,
+        target.getOriginal(), method, res, args, nanos);
+      AsyncEventQueue queue = asyncQueue;
+      if (queue != null) {
+        queue.submit(() -> fireAfterEvents(snapshot, event));
+      } else {
+        fireAfterEvents(snapshot, event);
+      }
+    }
+    if (isQuit(method)) {
+      releaseOnQuit();
+    }
+  }
+
+  private static boolean isQuit(Method method) {
+    return method.getName().equals("quit") && method.getDeclaringClass() == WebDriver.class;
+  }
+
+  private void releaseOnQuit() {
+    if (asyncQueue != null) {
+      disableAsyncAfterEvents();
+    }
+    synchronized (this) {
+      AsyncEventQueue queue = demotedQueue;
+      if (queue != null) {
+        queue.close();
+        demotedQueue = null;
+      }
+    }
+    flushEvents();
+  }
+
+  private static final class AfterEvent {
+    final MethodDescriptor descriptor;
+    // null if no listener subscribes to the after-event of this method
+    final Object[] eventArgs;
+    final Object target;
+    final Method method;
+    final Object res;
+    final Object[] args;
+    final long nanos;
+
+    AfterEvent(MethodDescriptor descriptor, Object[] eventArgs, Object target, Method method, Object res,
+               Object[] args, long nanos) {
+      this.descriptor = descriptor;
+      this.eventArgs = eventArgs;
+      this.target = target;
+      this.method = method;
+      this.res = res;
+      this.args = args;
+      this.nanos = nanos;
+    }
+  }
+
+  private void fireAfterEvents(ListenerRegistry.Snapshot snapshot, AfterEvent event) {
+    for (ListenerRegistry.Entry entry : snapshot.entries) {
+      ListenerCost.State state = entry.state;
+      if (state == ListenerCost.State.DISABLED || ! entry.accepts(event.descriptor, event.target, event.args)) {
+        continue;
+      }
+      ListenerMethods methods = ListenerMethods.of(entry.listener.getClass());
+      ListenerMethods.Handler[] handlers =
+        event.eventArgs != null ? methods.after(event.descriptor) : ListenerMethods.NONE;
+      if (handlers.length == 0 && ! methods.isTimed()) {
+        continue;
+      }
+      if (entry.isDeliveredAsync(state)) {
+        submitDemoted(entry, () -> fireAfterEvent(entry, methods, handlers, event));
+      } else {
+        fireAfterEvent(entry, methods, handlers, event);
+      }
     }
   }
 
-  private void fireAfterEvent(WebDriverListener listener, Decorated<?> target, Method method, Object res, Object[] args) {
-    String methodName = createEventMethodName("after", method.getName());
+  private void fireAfterEvent(ListenerRegistry.Entry entry, ListenerMethods methods, ListenerMethods.Handler[] handlers,
+                              AfterEvent event) {
+    if (handlers.length > 0) {
+      fireEvent(entry, event.descriptor.getAfterEventName(), handlers, event.eventArgs);
+    }
+    if (methods.isTimed()) {
+      long start = System.nanoTime();
+      boolean failed = true;
+      try {
+        ((TimedWebDriverListener) entry.listener).afterAnyCall(event.target, event.method, event.res, event.args,
+          event.nanos);
+        failed = false;
+      } finally {
+        account(entry, "afterAnyCall", start, failed);
+      }
+    }
+  }
 
-    boolean isVoid = method.getReturnType() == Void.TYPE
-      || method.getReturnType() == WebDriver.Timeouts.class;
+  @Override
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+    if (! batchListeners.isEmpty()) {
+      long[] timing = lastCall.get();
+      addToBatch(MethodDescriptor.of(method), target.getOriginal(), args, null, error, timing[0], timing[1]);
+    }
+    return super.onErrorGlobal(target, method, error, args);
+  }
+
+  private Object[] afterEventArgs(Decorated<?> target, MethodDescriptor descriptor, Object res, Object[] args) {
+    boolean isVoid = descriptor.isVoid();
     int shift = isVoid  ? 0 : 1;
 
     int argsLength = args != null ? args.length : 0;
@@ -95,46 +397,74 @@ public class EventFiringWebDriver extends DecoratedWebDriver {
     for (int i = 0; i < argsLength; i++) {
       args2[i + 1 + shift] = args[i];
     }
+    return args2;
+  }
 
-    Method m = findMatchingMethod(listener, methodName, args2);
-    if (m != null) {
-      callListenerMethod(m, listener, args2);
+  private void fireEvent(ListenerRegistry.Entry entry, String eventName, ListenerMethods.Handler[] handlers,
+                         Object[] args) {
+    ListenerMethods.Handler handler = ListenerMethods.match(handlers, args);
+    if (handler != null) {
+      long start = System.nanoTime();
+      boolean failed = true;
+      try {
+        handler.invoke(entry.listener, args);
+        failed = false;
+      } finally {
+        account(entry, eventName, start, failed);
+      }
     }
   }
 
-  private String createEventMethodName(String prefix, String originalMethodName) {
-    return prefix + originalMethodName.substring(0, 1).toUpperCase() + originalMethodName.substring(1);
+  private void account(ListenerRegistry.Entry entry, String eventName, long start, boolean failed) {
+    long spent = System.nanoTime() - start;
+    entry.counter(eventName).add(spent, failed);
+    ListenerPolicy policy = listenerPolicy;
+    ListenerCost.State state = entry.state;
+    if (policy == null || state == ListenerCost.State.DISABLED) {
+      return;
+    }
+    long average = policy.getLatencyBudgetNanos() > 0 ? entry.addLatency(spent, policy.getWindow()) : -1;
+    if (state == ListenerCost.State.ACTIVE) {
+      if (policy.isExceeded(average, failed ? entry.errors() : 0)) {
+        entry.demote(policy.getAction() == ListenerPolicy.Action.DISABLE
+          ? ListenerCost.State.DISABLED : ListenerCost.State.DEMOTED_TO_ASYNC);
+      }
+    } else if (! failed && policy.isWithinBudget(average)) {
+      // a demoted listener that has become fast enough is delivered synchronously again
+      entry.promote();
+    }
   }
 
-  private Method findMatchingMethod(WebDriverListener listener, String methodName, Object[] args) {
-    for (Method m : listener.getClass().getMethods()) {
-      if (m.getName().equals(methodName) && parametersMatch(m, args)) {
-        return m;
+  private void submitDemoted(ListenerRegistry.Entry entry, Runnable event) {
+    entry.queued.incrementAndGet();
+    boolean submitted = demotedQueue().submit(() -> {
+      try {
+        event.run();
+      } finally {
+        entry.queued.decrementAndGet();
       }
+    });
+    if (! submitted) {
+      entry.queued.decrementAndGet();
     }
-    return null;
   }
 
-  private boolean parametersMatch(Method m, Object[] args) {
-    Class<?>[] params = m.getParameterTypes();
-    if (params.length != args.length) {
-      return false;
-    }
-    for (int i = 0; i < params.length; i++) {
-      if (! Primitives.wrap(params[i]).isAssignableFrom(args[i].getClass())) {
-        return false;
+  private AsyncEventQueue demotedQueue() {
+    AsyncEventQueue queue = demotedQueue;
+    if (queue == null) {
+      synchronized (this) {
+        queue = demotedQueue;
+        if (queue == null) {
+          queue = newDemotedQueue();
+          demotedQueue = queue;
+        }
       }
     }
-    return true;
+    return queue;
   }
 
-  private void callListenerMethod(Method m, WebDriverListener listener, Object[] args) {
-    try {
-      m.invoke(listener, args);
-    } catch (IllegalAccessException e) {
-      throw Throwables.propagate(e);
-    } catch (InvocationTargetException e) {
-      throw Throwables.propagate(e.getCause());
-    }
+  // guarded by this
+  private AsyncEventQueue newDemotedQueue() {
+    return new AsyncEventQueue(demotedCapacity, demotedBackpressure, "EventFiringWebDriver demoted listeners");
   }
 }
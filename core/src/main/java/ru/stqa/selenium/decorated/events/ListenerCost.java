@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the time a listener has spent handling events, per event name.
+ */
+public final class ListenerCost {
+
+  public enum State {
+    ACTIVE, DEMOTED_TO_ASYNC, DISABLED
+  }
+
+  public static final class EventCost {
+    private final long calls;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long errors;
+
+    EventCost(long calls, long totalNanos, long maxNanos, long errors) {
+      this.calls = calls;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      this.errors = errors;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getAverageNanos() {
+      return calls == 0 ? 0 : totalNanos / calls;
+    }
+
+    public long getErrors() {
+      return errors;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d calls, %d ns total, %d ns max, %d errors", calls, totalNanos, maxNanos, errors);
+    }
+  }
+
+  private final WebDriverListener listener;
+  private final State state;
+  private final Map<String, EventCost> events;
+
+  ListenerCost(WebDriverListener listener, State state, Map<String, EventCost> events) {
+    this.listener = listener;
+    this.state = state;
+    this.events = Collections.unmodifiableMap(events);
+  }
+
+  public WebDriverListener getListener() {
+    return listener;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Costs by event name, like "beforeGet" or "afterAnyCall", sorted by name.
+   */
+  public Map<String, EventCost> getEvents() {
+    return events;
+  }
+
+  public long getTotalNanos() {
+    long total = 0;
+    for (EventCost cost : events.values()) {
+      total += cost.getTotalNanos();
+    }
+    return total;
+  }
+
+  public long getErrors() {
+    long errors = 0;
+    for (EventCost cost : events.values()) {
+      errors += cost.getErrors();
+    }
+    return errors;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ListenerCost {%s %s, %d ns, %s}", listener, state, getTotalNanos(), events);
+  }
+}
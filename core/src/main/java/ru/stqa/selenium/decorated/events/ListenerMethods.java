@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import com.google.common.primitives.Primitives;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dispatch table of a listener class, built once per class: maps each intercepted method
+ * to the listener methods that handle its before and after events. Default no-op methods of
+ * {@link WebDriverListener} are not included, so the events they stand for are skipped completely.
+ */
+final class ListenerMethods {
+
+  private static final ClassValue<ListenerMethods> METHODS = new ClassValue<ListenerMethods>() {
+    @Override
+    protected ListenerMethods computeValue(Class<?> listenerClass) {
+      return new ListenerMethods(listenerClass);
+    }
+  };
+
+  private static final MethodType SPREAD_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+  static final Handler[] NONE = new Handler[0];
+
+  private final Map<String, List<Method>> overridden = new HashMap<>();
+  private final boolean timed;
+
+  // indexed by 2 * descriptor id for before events and 2 * descriptor id + 1 for after events,
+  // copied on write so that readers need no locks
+  private volatile Handler[][] table = new Handler[0][];
+
+  private ListenerMethods(final Class<?> listenerClass) {
+    for (Method m : listenerClass.getMethods()) {
+      if (m.getDeclaringClass() == WebDriverListener.class || m.getDeclaringClass() == Object.class
+          || m.isBridge() || Modifier.isStatic(m.getModifiers())) {
+        continue;
+      }
+      overridden.computeIfAbsent(m.getName(), name -> new ArrayList<>()).add(m);
+    }
+    timed = TimedWebDriverListener.class.isAssignableFrom(listenerClass);
+  }
+
+  static ListenerMethods of(final Class<?> listenerClass) {
+    return METHODS.get(listenerClass);
+  }
+
+  /**
+   * Names of the methods overridden by the listener class, a superset of the events it subscribes to.
+   */
+  Set<String> getEventNames() {
+    return Collections.unmodifiableSet(overridden.keySet());
+  }
+
+  /**
+   * Whether the listener class is a {@link TimedWebDriverListener}.
+   */
+  boolean isTimed() {
+    return timed;
+  }
+
+  Handler[] before(final MethodDescriptor descriptor) {
+    return handlers(2 * descriptor.getId(), descriptor.getBeforeEventName());
+  }
+
+  Handler[] after(final MethodDescriptor descriptor) {
+    return handlers(2 * descriptor.getId() + 1, descriptor.getAfterEventName());
+  }
+
+  private Handler[] handlers(final int index, final String eventName) {
+    Handler[][] current = table;
+    if (index < current.length && current[index] != null) {
+      return current[index];
+    }
+    return resolve(index, eventName);
+  }
+
+  private synchronized Handler[] resolve(final int index, final String eventName) {
+    Handler[][] current = table;
+    if (index < current.length && current[index] != null) {
+      return current[index];
+    }
+    List<Method> candidates = overridden.get(eventName);
+    Handler[] handlers = NONE;
+    if (candidates != null) {
+      handlers = new Handler[candidates.size()];
+      for (int i = 0; i < handlers.length; i++) {
+        handlers[i] = new Handler(candidates.get(i));
+      }
+    }
+    Handler[][] updated = Arrays.copyOf(current, Math.max(current.length, index + 1));
+    updated[index] = handlers;
+    table = updated;
+    return handlers;
+  }
+
+  /**
+   * Finds the first handler whose parameters accept the given arguments.
+   */
+  static Handler match(final Handler[] handlers, final Object[] args) {
+    for (Handler handler : handlers) {
+      if (handler.accepts(args)) {
+        return handler;
+      }
+    }
+    return null;
+  }
+
+  static final class Handler {
+
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final MethodHandle handle;
+
+    private Handler(final Method method) {
+      this.method = method;
+      this.parameterTypes = method.getParameterTypes();
+      for (int i = 0; i < parameterTypes.length; i++) {
+        parameterTypes[i] = Primitives.wrap(parameterTypes[i]);
+      }
+      this.handle = createHandle(method);
+    }
+
+    Method getMethod() {
+      return method;
+    }
+
+    boolean accepts(final Object[] args) {
+      if (parameterTypes.length != args.length) {
+        return false;
+      }
+      for (int i = 0; i < parameterTypes.length; i++) {
+        if (args[i] != null && ! parameterTypes[i].isInstance(args[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void invoke(final Object listener, final Object[] args) {
+      try {
+        if (handle != null) {
+          handle.invokeExact(listener, args);
+        } else {
+          method.invoke(listener, args);
+        }
+      } catch (InvocationTargetException e) {
+        throw unchecked(e.getCause());
+      } catch (Throwable t) {
+        throw unchecked(t);
+      }
+    }
+
+    private static RuntimeException unchecked(final Throwable error) {
+      if (error instanceof RuntimeException) {
+        return (RuntimeException) error;
+      }
+      if (error instanceof Error) {
+        throw (Error) error;
+      }
+      return new RuntimeException(error);
+    }
+
+    // listener classes are often anonymous, their public methods can't be unreflected without access override,
+    // which a module system may deny (InaccessibleObjectException is a RuntimeException);
+    // null means the method is invoked reflectively
+    private static MethodHandle createHandle(final Method method) {
+      try {
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method)
+          .asFixedArity()
+          .asSpreader(Object[].class, method.getParameterCount())
+          .asType(SPREAD_TYPE);
+      } catch (IllegalAccessException | RuntimeException e) {
+        return null;
+      }
+    }
+  }
+}
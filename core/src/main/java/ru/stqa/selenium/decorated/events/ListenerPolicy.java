@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolates listeners that are too slow or fail too often: once a listener spends more than the latency
+ * budget per event on average over a window of its last events, or has thrown as many exceptions as the error
+ * threshold, the action is taken. Exceptions are still propagated until the threshold is reached.
+ * A listener demoted to async delivery is made active again once it keeps within the budget over a window
+ * of events delivered asynchronously.
+ */
+public final class ListenerPolicy {
+
+  public static final int DEFAULT_WINDOW = 10;
+
+  public enum Action {
+    /**
+     * Deliver all the events of the listener, both before and after, on a dedicated thread, in order.
+     * The listener can no longer veto calls by throwing exceptions from before-events.
+     */
+    DEMOTE_TO_ASYNC,
+
+    /**
+     * Stop delivering events to the listener.
+     */
+    DISABLE
+  }
+
+  private final long latencyBudgetNanos;
+  private final int errorThreshold;
+  private final Action action;
+  private final int window;
+
+  /**
+   * Creates a policy that judges the latency of a listener over a window of {@link #DEFAULT_WINDOW} events.
+   *
+   * @param latencyBudget maximum average time a listener may spend on an event, 0 for no limit
+   * @param errorThreshold number of exceptions thrown by a listener that triggers the action, 0 for no limit
+   */
+  public ListenerPolicy(long latencyBudget, TimeUnit unit, int errorThreshold, Action action) {
+    this(latencyBudget, unit, errorThreshold, action, DEFAULT_WINDOW);
+  }
+
+  /**
+   * @param latencyBudget maximum average time a listener may spend on an event, 0 for no limit
+   * @param errorThreshold number of exceptions thrown by a listener that triggers the action, 0 for no limit
+   * @param window number of the last events of a listener the average time is taken over, 1 to judge each event
+   */
+  public ListenerPolicy(long latencyBudget, TimeUnit unit, int errorThreshold, Action action, int window) {
+    if (latencyBudget < 0 || errorThreshold < 0) {
+      throw new IllegalArgumentException("Limits must not be negative");
+    }
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive: " + window);
+    }
+    this.latencyBudgetNanos = unit.toNanos(latencyBudget);
+    this.errorThreshold = errorThreshold;
+    this.action = action;
+    this.window = window;
+  }
+
+  public long getLatencyBudgetNanos() {
+    return latencyBudgetNanos;
+  }
+
+  public int getErrorThreshold() {
+    return errorThreshold;
+  }
+
+  public Action getAction() {
+    return action;
+  }
+
+  public int getWindow() {
+    return window;
+  }
+
+  /**
+   * @param averageNanos average time over a full window, negative if the window is not full yet
+   */
+  boolean isExceeded(final long averageNanos, final long errors) {
+    return (latencyBudgetNanos > 0 && averageNanos > latencyBudgetNanos)
+      || (errorThreshold > 0 && errors >= errorThreshold);
+  }
+
+  boolean isWithinBudget(final long averageNanos) {
+    return averageNanos >= 0 && averageNanos <= latencyBudgetNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ListenerPolicy {budget %d ns over %d events, errors %d, %s}",
+      latencyBudgetNanos, window, errorThreshold, action);
+  }
+}
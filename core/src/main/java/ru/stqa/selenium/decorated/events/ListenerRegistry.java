@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copy-on-write registry of listeners. Readers take an immutable {@link Snapshot} without locking,
+ * registration copies the snapshot under a lock. Listeners are ordered by priority, higher first,
+ * and by registration order within the same priority.
+ */
+final class ListenerRegistry {
+
+  /**
+   * A registered listener with its state and the time it has spent handling events.
+   */
+  static final class Entry {
+    final WebDriverListener listener;
+    final int priority;
+    // null if the listener receives all events
+    final EventFilter filter;
+    volatile ListenerCost.State state = ListenerCost.State.ACTIVE;
+    // events of the listener waiting in the queue of demoted listeners
+    final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    // times spent on the last events since the state has changed, guarded by this
+    private long[] latencies;
+    private long latencyCount;
+    private long latencySum;
+
+    private Entry(final WebDriverListener listener, final int priority, final EventFilter filter) {
+      this.listener = listener;
+      this.priority = priority;
+      this.filter = filter;
+    }
+
+    /**
+     * A promoted listener gets its events through the queue until the queued ones are delivered,
+     * so that new events don't overtake them.
+     */
+    boolean isDeliveredAsync(final ListenerCost.State state) {
+      return state == ListenerCost.State.DEMOTED_TO_ASYNC || queued.get() > 0;
+    }
+
+    boolean accepts(final MethodDescriptor descriptor, final Object target, final Object[] args) {
+      return filter == null || filter.accepts(descriptor, target, args);
+    }
+
+    Counter counter(final String eventName) {
+      Counter counter = counters.get(eventName);
+      if (counter == null) {
+        counter = counters.computeIfAbsent(eventName, name -> new Counter());
+      }
+      return counter;
+    }
+
+    long errors() {
+      long errors = 0;
+      for (Counter counter : counters.values()) {
+        errors += counter.errors.sum();
+      }
+      return errors;
+    }
+
+    /**
+     * Adds the time spent on an event to the rolling window of the given size, returns the average time
+     * over the window once it is full, -1 otherwise.
+     */
+    synchronized long addLatency(final long spent, final int window) {
+      if (latencies == null || latencies.length != window) {
+        latencies = new long[window];
+        latencyCount = 0;
+        latencySum = 0;
+      }
+      int index = (int) (latencyCount++ % window);
+      latencySum += spent - latencies[index];
+      latencies[index] = spent;
+      return latencyCount >= window ? latencySum / window : -1;
+    }
+
+    /**
+     * Moves an active listener to the given state, returns false if it has already left the active state.
+     */
+    synchronized boolean demote(final ListenerCost.State newState) {
+      if (state != ListenerCost.State.ACTIVE) {
+        return false;
+      }
+      changeState(newState);
+      return true;
+    }
+
+    /**
+     * Makes a listener demoted to async delivery active again, returns false if it is not demoted.
+     */
+    synchronized boolean promote() {
+      if (state != ListenerCost.State.DEMOTED_TO_ASYNC) {
+        return false;
+      }
+      changeState(ListenerCost.State.ACTIVE);
+      return true;
+    }
+
+    // the listener is judged by the events of the new state only
+    private void changeState(final ListenerCost.State newState) {
+      state = newState;
+      latencies = null;
+    }
+
+    ListenerCost cost() {
+      Map<String, ListenerCost.EventCost> events = new TreeMap<>();
+      counters.forEach((name, counter) -> events.put(name, new ListenerCost.EventCost(
+        counter.calls.sum(), counter.nanos.sum(), counter.maxNanos.get(), counter.errors.sum())));
+      return new ListenerCost(listener, state, events);
+    }
+  }
+
+  static final class Counter {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder errors = new LongAdder();
+
+    void add(final long spent, final boolean failed) {
+      calls.increment();
+      nanos.add(spent);
+      if (spent > maxNanos.get()) {
+        maxNanos.accumulateAndGet(spent, Math::max);
+      }
+      if (failed) {
+        errors.increment();
+      }
+    }
+  }
+
+  static final class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(new Entry[0], SubscribedEvents.NONE);
+
+    final Entry[] entries;
+    final SubscribedEvents events;
+    final boolean filtered;
+
+    private Snapshot(final Entry[] entries, final SubscribedEvents events) {
+      this.entries = entries;
+      this.events = events;
+      boolean filtered = false;
+      for (Entry entry : entries) {
+        filtered |= entry.filter != null;
+      }
+      this.filtered = filtered;
+    }
+
+    /**
+     * Whether at least one listener accepts the call.
+     */
+    boolean accepts(final MethodDescriptor descriptor, final Object target, final Object[] args) {
+      if (! filtered) {
+        return entries.length > 0;
+      }
+      for (Entry entry : entries) {
+        if (entry.accepts(descriptor, target, args)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static Snapshot of(final List<Entry> entries) {
+      if (entries.isEmpty()) {
+        return EMPTY;
+      }
+      List<WebDriverListener> listeners = new ArrayList<>(entries.size());
+      for (Entry entry : entries) {
+        listeners.add(entry.listener);
+      }
+      return new Snapshot(entries.toArray(new Entry[0]), SubscribedEvents.of(listeners));
+    }
+  }
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  Snapshot get() {
+    return snapshot;
+  }
+
+  /**
+   * Adds a listener, or changes the priority and the filter of a listener that is already registered.
+   * A listener added again starts over as an active listener with no cost recorded.
+   */
+  synchronized void add(final WebDriverListener listener, final int priority, final EventFilter filter) {
+    Entry[] current = snapshot.entries;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].listener.equals(listener) && current[i].priority == priority) {
+        // keep the position of the listener within its priority
+        Entry[] entries = current.clone();
+        entries[i] = new Entry(listener, priority, filter);
+        snapshot = Snapshot.of(Arrays.asList(entries));
+        return;
+      }
+    }
+    List<Entry> entries = without(listener);
+    int index = 0;
+    while (index < entries.size() && entries.get(index).priority >= priority) {
+      index++;
+    }
+    entries.add(index, new Entry(listener, priority, filter));
+    snapshot = Snapshot.of(entries);
+  }
+
+  synchronized void remove(final WebDriverListener listener) {
+    List<Entry> entries = without(listener);
+    if (entries.size() != snapshot.entries.length) {
+      snapshot = Snapshot.of(entries);
+    }
+  }
+
+  synchronized void clear() {
+    snapshot = Snapshot.EMPTY;
+  }
+
+  private List<Entry> without(final WebDriverListener listener) {
+    List<Entry> entries = new ArrayList<>(snapshot.entries.length + 1);
+    for (Entry entry : snapshot.entries) {
+      if (! entry.listener.equals(listener)) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+}
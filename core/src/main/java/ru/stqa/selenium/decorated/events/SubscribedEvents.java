@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of events that have at least one listener overriding them, rebuilt whenever
+ * listeners are added or removed. Membership of an event is resolved on first check and kept
+ * in a bit set indexed by method descriptor ids.
+ */
+final class SubscribedEvents {
+
+  static final SubscribedEvents NONE = new SubscribedEvents(Collections.emptySet(), false);
+
+  private final Set<String> eventNames;
+  private final boolean afterAnyCall;
+  private final DescriptorBits resolved = new DescriptorBits();
+
+  private SubscribedEvents(final Set<String> eventNames, final boolean afterAnyCall) {
+    this.eventNames = eventNames;
+    this.afterAnyCall = afterAnyCall;
+  }
+
+  static SubscribedEvents of(final Collection<? extends WebDriverListener> listeners) {
+    Set<String> eventNames = new HashSet<>();
+    boolean afterAnyCall = false;
+    for (WebDriverListener listener : listeners) {
+      ListenerMethods methods = ListenerMethods.of(listener.getClass());
+      eventNames.addAll(methods.getEventNames());
+      afterAnyCall |= methods.isTimed();
+    }
+    return eventNames.isEmpty() && ! afterAnyCall ? NONE : new SubscribedEvents(eventNames, afterAnyCall);
+  }
+
+  boolean isEmpty() {
+    return eventNames.isEmpty() && ! afterAnyCall;
+  }
+
+  /**
+   * Whether some listener wants timings of all calls, see {@link TimedWebDriverListener}.
+   */
+  boolean hasAfterAnyCall() {
+    return afterAnyCall;
+  }
+
+  boolean hasBefore(final MethodDescriptor descriptor) {
+    return contains(2 * descriptor.getId(), descriptor.getBeforeEventName());
+  }
+
+  boolean hasAfter(final MethodDescriptor descriptor) {
+    return contains(2 * descriptor.getId() + 1, descriptor.getAfterEventName());
+  }
+
+  private boolean contains(final int event, final String eventName) {
+    if (eventNames.isEmpty()) {
+      return false;
+    }
+    int state = resolved.get(event);
+    return state != DescriptorBits.UNKNOWN ? state == 1 : resolved.set(event, eventNames.contains(eventName));
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import java.lang.reflect.Method;
+
+/**
+ * Listener that receives the duration of every call, so that it does not need to keep start times
+ * between before- and after-events.
+ */
+public interface TimedWebDriverListener extends WebDriverListener {
+
+  /**
+   * Called after every successful call with its duration, measured once per call around the call itself,
+   * so nested calls do not affect each other. The target is the original object the method was called on,
+   * the result is null for void methods.
+   */
+  void afterAnyCall(Object target, Method method, Object result, Object[] args, long nanos);
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.Arrays;
+
+/**
+ * Compact record of a completed call, delivered to {@link WebDriverEventBatchListener}s. Records are
+ * pooled and reused once the batch they belong to has been delivered.
+ */
+public final class WebDriverEvent {
+
+  private MethodDescriptor descriptor;
+  private Object target;
+  private Object[] args;
+  private Object result;
+  private Throwable failure;
+  private long startNanos;
+  private long durationNanos;
+
+  WebDriverEvent() {}
+
+  void set(MethodDescriptor descriptor, Object target, Object[] args, Object result, Throwable failure,
+           long startNanos, long durationNanos) {
+    this.descriptor = descriptor;
+    this.target = target;
+    this.args = args;
+    this.result = result;
+    this.failure = failure;
+    this.startNanos = startNanos;
+    this.durationNanos = durationNanos;
+  }
+
+  void clear() {
+    set(null, null, null, null, null, 0, 0);
+  }
+
+  public MethodDescriptor getDescriptor() {
+    return descriptor;
+  }
+
+  /**
+   * The original object the method was called on.
+   */
+  public Object getTarget() {
+    return target;
+  }
+
+  /**
+   * Arguments of the call, null if the method has no parameters.
+   */
+  public Object[] getArgs() {
+    return args;
+  }
+
+  /**
+   * Result of the call, null if the method is void or has failed.
+   */
+  public Object getResult() {
+    return result;
+  }
+
+  /**
+   * Exception thrown by the call, null if the call succeeded.
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  /**
+   * Start of the call as {@link System#nanoTime()}.
+   */
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("WebDriverEvent {%s%s on %s = %s, %d ns}", descriptor.getMethod().getName(),
+      args == null ? "()" : Arrays.toString(args), target, failure != null ? failure : result, durationNanos);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.stqa.selenium.decorated.events;
+
+import java.util.List;
+
+/**
+ * Receives events in batches instead of a callback per method, for listeners that only need a stream
+ * of events, like audit trails. A batch is delivered when it reaches the configured size or age,
+ * see {@link EventFiringWebDriver#setEventBatching}.
+ */
+public interface WebDriverEventBatchListener {
+
+  /**
+   * Receives a batch of events in the order the calls completed. The list and the events are reused
+   * after this method returns, so anything that should be kept must be copied.
+   */
+  void onEvents(List<WebDriverEvent> events);
+
+}
@@ -19,6 +19,7 @@ package ru.stqa.selenium.decorated.highlight;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.internal.Locatable;
 import ru.stqa.selenium.decorated.Decorated;
 import ru.stqa.selenium.decorated.DecoratedWebDriver;
 
@@ -37,21 +38,25 @@ public class HighlightingWebDriver extends DecoratedWebDriver {
 
   public HighlightingWebDriver(final WebDriver driver) {
     super(driver);
+    setMethodFilter(HighlightingWebDriver::isHighlighted);
   }
 
   public HighlightingWebDriver(final WebDriver driver, long pause) {
     super(driver);
+    setMethodFilter(HighlightingWebDriver::isHighlighted);
     this.pause = pause;
   }
 
   public HighlightingWebDriver(final WebDriver driver, final String actionStyle, final String foundStyle) {
     super(driver);
+    setMethodFilter(HighlightingWebDriver::isHighlighted);
     this.actionStyle = actionStyle;
     this.foundStyle = foundStyle;
   }
 
   public HighlightingWebDriver(final WebDriver driver, long pause, final String actionStyle, final String foundStyle) {
     super(driver);
+    setMethodFilter(HighlightingWebDriver::isHighlighted);
     this.pause = pause;
     this.actionStyle = actionStyle;
     this.foundStyle = foundStyle;
@@ -79,6 +84,14 @@ public class HighlightingWebDriver extends DecoratedWebDriver {
     super.afterMethodGlobal(target, method, res, args);
   }
 
+  // element methods highlight the target element, methods returning an element highlight the result
+  private static boolean isHighlighted(Method method) {
+    return method.getDeclaringClass().isAssignableFrom(WebElement.class)
+      || method.getDeclaringClass() == Locatable.class
+      || method.getReturnType() == WebElement.class
+      || method.getReturnType() == Object.class;
+  }
+
   private void highlight(WebElement element, String cls) {
     addStyleToHeader();
     try {
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.stale;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Elements that have been got together and can be got again only together: a list found by a locator,
+ * the active element or a result of a script. When one of the elements goes stale the elements are fetched
+ * again, the other stale elements take their new originals by index without another round trip.
+ */
+final class FoundElements {
+
+  private final Supplier<List<?>> fetch;
+  // null until the elements are fetched again, the elements got first are not kept
+  private List<?> current;
+
+  FoundElements(final Supplier<List<?>> fetch) {
+    this.fetch = fetch;
+  }
+
+  UnaryOperator<WebElement> rediscovery(final int index) {
+    return stale -> get(index, stale);
+  }
+
+  // the elements are fetched again only if the stale element is from the latest fetch
+  private synchronized WebElement get(final int index, final WebElement stale) {
+    if (current == null || (index < current.size() && current.get(index) == stale)) {
+      current = fetch.get();
+    }
+    Object found = index < current.size() ? current.get(index) : null;
+    if (! (found instanceof WebElement) || found == stale) {
+      throw new NoSuchElementException("Cannot find element #" + index + " again");
+    }
+    return (WebElement) found;
+  }
+}
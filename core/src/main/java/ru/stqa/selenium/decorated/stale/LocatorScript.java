@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.stale;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Script that follows a chain of locators in the browser, so that a whole chain of nested elements
+ * can be found in one round trip. Only the standard locators that can be evaluated in the browser
+ * with the same meaning are translated.
+ */
+final class LocatorScript {
+
+  static final String SCRIPT =
+    "var ctx = arguments[0] || document, steps = arguments[1], found = [];\n" +
+    "function first(nodes, attr, value) {\n" +
+    "  for (var j = 0; j < nodes.length; j++) {\n" +
+    "    var n = nodes[j];\n" +
+    "    if ((!attr || n.getAttribute(attr) === value) && (ctx === document || (n !== ctx && ctx.contains(n)))) {\n" +
+    "      return n;\n" +
+    "    }\n" +
+    "  }\n" +
+    "  return null;\n" +
+    "}\n" +
+    "for (var i = 0; i < steps.length; i += 2) {\n" +
+    "  var how = steps[i], what = steps[i + 1], el = null;\n" +
+    "  if (how === 'css') {\n" +
+    "    el = ctx.querySelector(what);\n" +
+    "  } else if (how === 'xpath') {\n" +
+    "    el = document.evaluate(what, ctx, null, 9, null).singleNodeValue;\n" +
+    "  } else if (how === 'class') {\n" +
+    "    el = ctx.getElementsByClassName(what)[0];\n" +
+    "  } else if (how === 'tag') {\n" +
+    "    el = ctx.getElementsByTagName(what)[0];\n" +
+    "  } else if (how === 'id') {\n" +
+    "    el = document.getElementById(what);\n" +
+    "    if (el && ctx !== document && (el === ctx || !ctx.contains(el))) {\n" +
+    "      el = first(ctx.querySelectorAll('[id]'), 'id', what);\n" +
+    "    }\n" +
+    "  } else {\n" +
+    "    el = first(document.getElementsByName(what));\n" +
+    "  }\n" +
+    "  if (!el) { return null; }\n" +
+    "  found.push(el);\n" +
+    "  ctx = el;\n" +
+    "}\n" +
+    "return found;";
+
+  private LocatorScript() {}
+
+  /**
+   * Translates locators to the script arguments, pairs of a strategy and a value,
+   * returns null if some locator can't be translated.
+   */
+  static List<String> steps(final List<By> locators) {
+    List<String> steps = new ArrayList<>(locators.size() * 2);
+    for (By locator : locators) {
+      if (! addStep(steps, locator)) {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  private static boolean addStep(final List<String> steps, final By locator) {
+    Class<?> type = locator.getClass();
+    String value = locator.toString();
+    if (type == By.ById.class) {
+      return addStep(steps, "id", value, "By.id: ");
+    } else if (type == By.ByName.class) {
+      return addStep(steps, "name", value, "By.name: ");
+    } else if (type == By.ByCssSelector.class) {
+      return addStep(steps, "css", value, "By.cssSelector: ");
+    } else if (type == By.ByXPath.class) {
+      return addStep(steps, "xpath", value, "By.xpath: ");
+    } else if (type == By.ByTagName.class) {
+      return addStep(steps, "tag", value, "By.tagName: ");
+    } else if (type == By.ByClassName.class) {
+      // compound class names are rejected by the driver, they must not be found by the script either
+      return addStep(steps, "class", value, "By.className: ") && ! steps.get(steps.size() - 1).trim().contains(" ");
+    }
+    return false;
+  }
+
+  private static boolean addStep(final List<String> steps, final String how, final String description,
+                                 final String prefix) {
+    if (! description.startsWith(prefix)) {
+      return false;
+    }
+    steps.add(how);
+    steps.add(description.substring(prefix.length()));
+    return true;
+  }
+}
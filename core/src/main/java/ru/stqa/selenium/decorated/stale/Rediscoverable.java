@@ -18,6 +18,9 @@ package ru.stqa.selenium.decorated.stale;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.function.UnaryOperator;
 
 public interface Rediscoverable {
   void setSearchContext(SearchContext searchContext);
@@ -27,4 +30,26 @@ public interface Rediscoverable {
   void setLocator(By locator);
 
   By getLocator();
+
+  /**
+   * Remembers the element this one has been found in, so that a chain of stale elements can be found again.
+   */
+  default void setParent(Rediscoverable parent) {}
+
+  /**
+   * Element this one has been found in, null if it has been found in the driver.
+   */
+  default Rediscoverable getParent() {
+    return null;
+  }
+
+  /**
+   * Remembers how to get an element that has not been found by a locator again, the function gets the stale
+   * original element and returns a new one.
+   */
+  default void setRediscovery(UnaryOperator<WebElement> rediscovery) {}
+
+  default UnaryOperator<WebElement> getRediscovery() {
+    return null;
+  }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.stale;
+
+import org.openqa.selenium.WebDriver;
+import ru.stqa.selenium.decorated.DecoratedTargetLocator;
+
+import java.lang.reflect.Method;
+
+class StaleTolerantTargetLocator extends DecoratedTargetLocator {
+
+  StaleTolerantTargetLocator(WebDriver.TargetLocator targetLocator, StaleTolerantWebDriver driver) {
+    super(targetLocator, driver);
+  }
+
+  // the driver needs the activated active element to remember how to get it again
+  @Override
+  public void afterMethod(Method method, Object res, Object[] args) {
+    if (getTopmostDecorated().isIntercepted(method)) {
+      getTopmostDecorated().afterMethodGlobal(this, method, res, args);
+    }
+  }
+}
@@ -16,27 +16,61 @@
 
 package ru.stqa.selenium.decorated.stale;
 
-import com.google.common.base.Throwables;
 import org.openqa.selenium.*;
 import ru.stqa.selenium.decorated.Decorated;
 import ru.stqa.selenium.decorated.DecoratedWebDriver;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * Finds stale elements again and retries the call. An element found by a locator is found again by the same
+ * locator, together with its stale ancestors. Elements of a list found by a locator and the active element
+ * are got again the same way they have been got, the elements of one list with one call.
+ * <p>
+ * Elements returned by a script are got again by executing the script once more with the same arguments
+ * only if {@link #setReplayScripts replaying scripts} is turned on, as a script may have side effects.
+ */
 public class StaleTolerantWebDriver extends DecoratedWebDriver {
 
+  private volatile boolean replayScripts;
+
   public StaleTolerantWebDriver(final WebDriver driver) {
     super(driver);
   }
 
+  /**
+   * Turns on executing a script again to get the elements it has returned once they go stale,
+   * it is off by default. Turn it on only if the scripts executed have no side effects.
+   */
+  public void setReplayScripts(boolean replayScripts) {
+    this.replayScripts = replayScripts;
+  }
+
+  // an element keeps the locator, parent and rediscovery of the lookup that has found it
+  @Override
+  protected boolean canInternElements() {
+    return false;
+  }
+
   protected Decorated<WebElement> createDecorated(WebElement original) {
     return new StaleTolerantWebElement(original, this);
   }
 
+  @Override
+  protected Decorated<TargetLocator> createDecorated(TargetLocator original) {
+    return new StaleTolerantTargetLocator(original, this);
+  }
+
   @Override
   public void afterMethod(Method method, Object res, Object[] args) {
-    afterMethodGlobal(this, method, res, args);
+    if (isIntercepted(method)) {
+      afterMethodGlobal(this, method, res, args);
+    }
   }
 
   @Override
@@ -46,27 +80,203 @@ public class StaleTolerantWebDriver extends DecoratedWebDriver {
       Rediscoverable elementWrapper = (Rediscoverable) res;
       elementWrapper.setSearchContext((SearchContext) target.getActivated());
       elementWrapper.setLocator((By) args[0]);
+      if (target instanceof StaleTolerantWebElement) {
+        elementWrapper.setParent((StaleTolerantWebElement) target);
+      }
+    } else if (method.getName().equals("findElements")) {
+      By locator = (By) args[0];
+      if (target instanceof StaleTolerantWebElement) {
+        StaleTolerantWebElement parent = (StaleTolerantWebElement) target;
+        setRediscovery((List<?>) res, () -> findElementsAgain(parent, locator));
+      } else {
+        setRediscovery((List<?>) res, () -> getOriginal().findElements(locator));
+      }
+    } else if (method.getName().equals("activeElement") && res instanceof Rediscoverable) {
+      ((Rediscoverable) res).setRediscovery(new FoundElements(
+        () -> Collections.singletonList(getOriginal().switchTo().activeElement())).rediscovery(0));
+    } else if (replayScripts && method.getName().equals("executeScript")) {
+      String script = (String) args[0];
+      if (res instanceof List && containsElements((List<?>) unwrap(res))) {
+        Object[] scriptArgs = args[1] == null ? null : ((Object[]) args[1]).clone();
+        setRediscovery((List<?>) res, () -> {
+          Object replayed = replay(script, scriptArgs);
+          return replayed instanceof List ? (List<?>) replayed : Collections.emptyList();
+        });
+      } else if (res instanceof Rediscoverable) {
+        Object[] scriptArgs = args[1] == null ? null : ((Object[]) args[1]).clone();
+        ((Rediscoverable) res).setRediscovery(new FoundElements(
+          () -> Collections.singletonList(replay(script, scriptArgs))).rediscovery(0));
+      }
+    }
+  }
+
+  // elements got together are got again together when one of them goes stale, an element learns how
+  // when the list decorates it
+  private void setRediscovery(List<?> elements, Supplier<List<?>> fetch) {
+    if (elements.isEmpty()) {
+      return;
+    }
+    FoundElements found = new FoundElements(fetch);
+    watchDecoratedItems(elements, (element, index) -> {
+      if (element instanceof Rediscoverable) {
+        ((Rediscoverable) element).setRediscovery(found.rediscovery(index));
+      }
+    });
+  }
+
+  private static boolean containsElements(List<?> items) {
+    for (Object item : items) {
+      if (item instanceof WebElement) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private List<WebElement> findElementsAgain(StaleTolerantWebElement parent, By locator) {
+    try {
+      return parent.getOriginal().findElements(locator);
+    } catch (StaleElementReferenceException ex) {
+      if (! rediscover(parent)) {
+        throw ex;
+      }
+      return parent.getOriginal().findElements(locator);
+    }
+  }
+
+  // arguments are unwrapped on replay, so that elements found again since the first call are passed
+  private Object replay(String script, Object[] args) {
+    Object[] unwrapped = null;
+    if (args != null) {
+      unwrapped = new Object[args.length];
+      for (int i = 0; i < args.length; i++) {
+        unwrapped[i] = unwrap(args[i]);
+      }
     }
+    return ((JavascriptExecutor) getOriginal()).executeScript(script, unwrapped);
   }
 
   @Override
-  public Object onErrorGlobal(Decorated<?> target, Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    Throwable te = e.getTargetException();
-    if (te instanceof StaleElementReferenceException) {
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+    if (error instanceof StaleElementReferenceException && target instanceof StaleTolerantWebElement) {
       StaleTolerantWebElement elementWrapper = (StaleTolerantWebElement) target;
+      if (rediscover(elementWrapper)) {
+        return RETRY;
+      }
+    }
+    return super.onErrorGlobal(target, method, error, args);
+  }
+
+  private boolean rediscover(StaleTolerantWebElement element) {
+    if (element.getLocator() != null) {
+      return rediscoverChain(element);
+    }
+    UnaryOperator<WebElement> rediscovery = element.getRediscovery();
+    if (rediscovery == null) {
+      return false;
+    }
+    try {
+      element.setOriginal(rediscovery.apply(element.getOriginal()));
+      return true;
+    } catch (NoSuchElementException | StaleElementReferenceException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Finds the stale element again together with its stale ancestors. The whole chain of locators is
+   * followed in one script if the driver can execute scripts and all the locators can be evaluated
+   * in the browser, otherwise the search starts from the nearest live ancestor.
+   */
+  private boolean rediscoverChain(StaleTolerantWebElement element) {
+    // the element and its ancestors that can be found again, from the element up
+    List<StaleTolerantWebElement> chain = new ArrayList<>();
+    StaleTolerantWebElement current = element;
+    while (current != null && current.getLocator() != null) {
+      chain.add(current);
+      current = current.getParent() instanceof StaleTolerantWebElement
+        ? (StaleTolerantWebElement) current.getParent() : null;
+    }
+    SearchContext root;
+    if (current != null) {
+      root = current.getOriginal();
+    } else if (chain.get(chain.size() - 1).getSearchContext() instanceof WebDriver) {
+      root = getOriginal();
+    } else {
+      root = chain.get(chain.size() - 1).getSearchContext();
+    }
+
+    try {
+      return rediscoverByScript(chain, root) || rediscoverFromLiveAncestor(chain, root);
+    } catch (StaleElementReferenceException ex) {
+      // the nearest ancestor without a locator may have been got in another way and can be got again
+      if (current == null || ! rediscover(current)) {
+        return false;
+      }
+    } catch (NoSuchElementException ex) {
+      return false;
+    }
+    try {
+      root = current.getOriginal();
+      return rediscoverByScript(chain, root) || rediscoverFromLiveAncestor(chain, root);
+    } catch (NoSuchElementException | StaleElementReferenceException ex) {
+      return false;
+    }
+  }
+
+  private boolean rediscoverByScript(List<StaleTolerantWebElement> chain, SearchContext root) {
+    if (! (getOriginal() instanceof JavascriptExecutor) || ! (root == getOriginal() || root instanceof WebElement)) {
+      return false;
+    }
+    List<By> locators = new ArrayList<>();
+    for (int i = chain.size() - 1; i >= 0; i--) {
+      locators.add(chain.get(i).getLocator());
+    }
+    List<String> steps = LocatorScript.steps(locators);
+    if (steps == null) {
+      return false;
+    }
+    Object found;
+    try {
+      found = ((JavascriptExecutor) getOriginal()).executeScript(LocatorScript.SCRIPT,
+        root instanceof WebElement ? root : null, steps);
+    } catch (JavascriptException | UnsupportedCommandException ex) {
+      // other failures, like a stale root, are not specific to the script
+      return false;
+    }
+    // the locators may mean a bit different in the browser, so nothing found there is looked for again
+    // from the nearest live ancestor
+    if (! (found instanceof List) || ((List<?>) found).size() != chain.size()) {
+      return false;
+    }
+    List<?> elements = (List<?>) found;
+    for (int i = 0; i < chain.size(); i++) {
+      chain.get(chain.size() - 1 - i).setOriginal((WebElement) elements.get(i));
+    }
+    return true;
+  }
+
+  private boolean rediscoverFromLiveAncestor(List<StaleTolerantWebElement> chain, SearchContext root) {
+    WebElement found;
+    int level = 1;
+    while (true) {
+      SearchContext context = level < chain.size() ? chain.get(level).getOriginal() : root;
       try {
-        WebElement newElement = elementWrapper.getSearchContext().findElement(elementWrapper.getLocator());
-        elementWrapper.setOriginal(newElement);
-        try {
-          return callMethodGlobal(target, method, args);
-        } catch (InvocationTargetException e1) {
-          throw Throwables.propagate(e1.getTargetException());
+        found = context.findElement(chain.get(level - 1).getLocator());
+        break;
+      } catch (StaleElementReferenceException ex) {
+        if (level == chain.size()) {
+          throw ex;
         }
-      } catch (NoSuchElementException ex) {
-        throw Throwables.propagate(te);
+        level++;
       }
     }
-    throw Throwables.propagate(te);
+    chain.get(level - 1).setOriginal(found);
+    for (int i = level - 2; i >= 0; i--) {
+      found = found.findElement(chain.get(i).getLocator());
+      chain.get(i).setOriginal(found);
+    }
+    return true;
   }
 
 }
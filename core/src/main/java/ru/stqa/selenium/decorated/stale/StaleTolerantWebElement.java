@@ -22,11 +22,14 @@ import org.openqa.selenium.WebElement;
 import ru.stqa.selenium.decorated.DecoratedWebElement;
 
 import java.lang.reflect.Method;
+import java.util.function.UnaryOperator;
 
 public class StaleTolerantWebElement extends DecoratedWebElement implements Rediscoverable {
 
   private SearchContext searchContext;
   private By locator;
+  private Rediscoverable parent;
+  private UnaryOperator<WebElement> rediscovery;
 
   public StaleTolerantWebElement(WebElement element, StaleTolerantWebDriver driver) {
     super(element, driver);
@@ -34,7 +37,9 @@ public class StaleTolerantWebElement extends DecoratedWebElement implements Redi
 
   @Override
   public void afterMethod(Method method, Object res, Object[] args) {
-    getTopmostDecorated().afterMethodGlobal(this, method, res, args);
+    if (getTopmostDecorated().isIntercepted(method)) {
+      getTopmostDecorated().afterMethodGlobal(this, method, res, args);
+    }
   }
 
   @Override
@@ -56,4 +61,24 @@ public class StaleTolerantWebElement extends DecoratedWebElement implements Redi
   public By getLocator() {
     return locator;
   }
+
+  @Override
+  public void setParent(Rediscoverable parent) {
+    this.parent = parent;
+  }
+
+  @Override
+  public Rediscoverable getParent() {
+    return parent;
+  }
+
+  @Override
+  public void setRediscovery(UnaryOperator<WebElement> rediscovery) {
+    this.rediscovery = rediscovery;
+  }
+
+  @Override
+  public UnaryOperator<WebElement> getRediscovery() {
+    return rediscovery;
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures how many {@link DecoratedWebElement} activations per second {@link Activator} can do.
+ * It is not a test, run it manually from the test classpath:
+ * <code>java -cp ... ru.stqa.selenium.decorated.ActivatorBenchmark [seconds]</code>
+ */
+public class ActivatorBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 5;
+
+  public static void main(String[] args) {
+    long roundNanos = TimeUnit.SECONDS.toNanos(args.length > 0 ? Long.parseLong(args[0]) : 1);
+
+    DecoratedWebDriver driver = new DecoratedWebDriver(mock(WebDriver.class));
+    WebElement element = mock(WebElement.class);
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      run(driver, element, roundNanos);
+    }
+    double total = 0;
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      double rate = run(driver, element, roundNanos);
+      System.out.printf("round %d: %,.0f activations/s%n", i + 1, rate);
+      total += rate;
+    }
+    System.out.printf("average: %,.0f activations/s%n", total / MEASURED_ROUNDS);
+  }
+
+  private static double run(DecoratedWebDriver driver, WebElement element, long roundNanos) {
+    long count = 0;
+    int sink = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      for (int i = 0; i < 1000; i++) {
+        sink += System.identityHashCode(new DecoratedWebElement(element, driver).getActivated());
+      }
+      count += 1000;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < roundNanos);
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return count * 1e9 / elapsed;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ActivatorTest {
+
+  interface SomeOtherInterface {}
+
+  interface Target {
+    String hello(String who);
+  }
+
+  static class DecoratedTarget extends DecoratedTopmost<Target> implements Target {
+    DecoratedTarget(Target original) {
+      super(original);
+    }
+
+    @Override
+    public String hello(String who) {
+      return getOriginal().hello(who);
+    }
+  }
+
+  interface ExtendedDriver extends WebDriver, SomeOtherInterface {}
+
+  @Test
+  void shouldGetHashCodeOfOriginalWithoutHooks() throws Throwable {
+    Target target = mock(Target.class);
+    DecoratedTarget decorated = spy(new DecoratedTarget(target));
+
+    Target activated = new Activator<Target>().activate(decorated);
+
+    assertThat(activated.hashCode(), equalTo(target.hashCode()));
+    verify(decorated, never()).onError(any(), any(), any());
+    verify(decorated, never()).callMethod(any(), any());
+  }
+
+  @Test
+  void shouldReuseProxyClassForTheSameDecoratorAndOriginalClasses() {
+    WebDriver driver = mock(WebDriver.class);
+
+    WebDriver decorated1 = new Activator<WebDriver>().activate(new DecoratedWebDriver(driver));
+    WebDriver decorated2 = new Activator<WebDriver>().activate(new DecoratedWebDriver(driver));
+
+    assertThat(decorated1, not(sameInstance(decorated2)));
+    assertThat(decorated1.getClass(), sameInstance(decorated2.getClass()));
+  }
+
+  @Test
+  void shouldDistinguishOriginalClassesForTheSameDecoratorClass() {
+    WebDriver driver = mock(WebDriver.class);
+    WebDriver extendedDriver = mock(ExtendedDriver.class);
+
+    WebDriver decorated1 = new Activator<WebDriver>().activate(new DecoratedWebDriver(driver));
+    WebDriver decorated2 = new Activator<WebDriver>().activate(new DecoratedWebDriver(extendedDriver));
+
+    assertThat(decorated1, not(instanceOf(SomeOtherInterface.class)));
+    assertThat(decorated2, instanceOf(SomeOtherInterface.class));
+  }
+
+  @Test
+  void shouldPutDecoratedInterfacesFirst() {
+    WebDriver driver = mock(WebDriver.class);
+
+    WebDriver decorated = new Activator<WebDriver>().activate(new DecoratedWebDriver(driver));
+
+    assertThat(decorated.getClass().getInterfaces()[0], equalTo((Object) WebDriver.class));
+  }
+
+  @Test
+  void shouldUseJdkProxiesUnlessBytecodeEngineIsTurnedOn() {
+    WebDriver decorated = new Activator<WebDriver>().activate(new DecoratedWebDriver(mock(WebDriver.class)));
+
+    assertThat(Proxy.isProxyClass(decorated.getClass()),
+      is(! "bytecode".equals(System.getProperty(Activator.ENGINE_PROPERTY))));
+  }
+
+  @Test
+  void shouldGenerateProxyClassesForPublicInterfaces() {
+    WebDriver driver = mock(WebDriver.class);
+    when(driver.getTitle()).thenReturn("title");
+    when(driver.findElement(By.id("test"))).thenReturn(mock(WebElement.class));
+    DecoratedWebDriver decoratedDriver = new DecoratedWebDriver(driver);
+    ProxyFactory factory = GeneratedProxyFactory.create(
+      new HashSet<>(Arrays.asList(WebDriver.class, Decorated.class)), new Class<?>[] {WebDriver.class, Decorated.class});
+
+    WebDriver decorated = (WebDriver) factory.newProxy(decoratedDriver);
+
+    assertThat(Proxy.isProxyClass(decorated.getClass()), is(false));
+    assertThat(decorated.getClass().getClassLoader(), sameInstance(Activator.class.getClassLoader()));
+    assertThat(decorated.getTitle(), equalTo("title"));
+    assertThat(decorated.findElement(By.id("test")), instanceOf(Decorated.class));
+    assertThat(decorated, equalTo(decorated));
+    assertThat(decorated, equalTo(driver));
+    assertThat(((Decorated<?>) decorated).getOriginal(), sameInstance(driver));
+  }
+
+  @Test
+  void shouldFallBackToJdkProxiesForNonPublicInterfaces() {
+    Target target = mock(Target.class);
+    when(target.hello("who")).thenReturn("world");
+
+    Target decorated = new Activator<Target>().activate(new DecoratedTarget(target));
+
+    assertThat(Proxy.isProxyClass(decorated.getClass()), is(true));
+    assertThat(decorated.hello("who"), equalTo("world"));
+  }
+
+}
@@ -76,6 +76,7 @@ class DecoratedChildTest {
   }
 
   @Test
+  @SuppressWarnings("deprecation")
   void testCanPropagateExceptions() throws Throwable {
     Target target = mock(Target.class);
     TargetFixture fixture = new TargetFixture(target);
@@ -93,6 +94,10 @@ class DecoratedChildTest {
       argThat(m -> m.getName().equals("hello")),
       argThat((InvocationTargetException ex) -> ex.getTargetException() instanceof WebDriverException),
       eq(new Object[]{"world"}));
+    inOrder.verify(fixture.topmost, times(1)).onErrorGlobal(same(fixture.deco),
+      argThat(m -> m.getName().equals("hello")),
+      argThat((Throwable ex) -> ex instanceof WebDriverException),
+      eq(new Object[]{"world"}));
     verifyNoMoreInteractions(fixture.topmost);
   }
 
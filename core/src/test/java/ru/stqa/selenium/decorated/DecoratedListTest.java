@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+class DecoratedListTest {
+
+  @Test
+  void decoratesItemsOnFirstAccess() {
+    UnaryOperator<String> decorator = spy(new UnaryOperator<String>() {
+      @Override
+      public String apply(String s) {
+        return s.toUpperCase();
+      }
+    });
+    List<String> list = new DecoratedList<>(Arrays.asList("a", "b", "c"), decorator);
+
+    assertThat(list.size(), is(3));
+    verifyZeroInteractions(decorator);
+
+    assertThat(list.get(1), is("B"));
+    assertThat(list.get(1), is("B"));
+    verify(decorator, times(1)).apply("b");
+    verifyNoMoreInteractions(decorator);
+  }
+
+  @Test
+  void passesItemsToWatcherAsTheyAreDecorated() {
+    DecoratedList<String> list = new DecoratedList<>(Arrays.asList("a", "b", "c"), String::toUpperCase);
+    list.get(2);
+    List<String> watched = new ArrayList<>();
+
+    list.watch((item, index) -> watched.add(index + item));
+    assertThat(watched, equalTo(Arrays.asList("2C")));
+
+    list.get(0);
+    list.get(0);
+    assertThat(watched, equalTo(Arrays.asList("2C", "0A")));
+  }
+
+  @Test
+  void unwrapsToOriginalListUntilModified() {
+    List<String> original = new ArrayList<>(Arrays.asList("a", "b"));
+    DecoratedList<String> list = new DecoratedList<>(original, String::toUpperCase);
+
+    assertThat(list.getOriginal(), sameInstance(original));
+
+    list.add("C");
+
+    assertThat(list.getOriginal(), nullValue());
+    assertThat(list, equalTo(Arrays.asList("A", "B", "C")));
+    assertThat(original, equalTo(Arrays.asList("a", "b")));
+  }
+
+  @Test
+  void findElementsReturnsLazyList() {
+    WebDriver driver = mock(WebDriver.class);
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    List<WebElement> found = Arrays.asList(element1, element2);
+    when(driver.findElements(By.tagName("tr"))).thenReturn(found);
+    DecoratedWebDriver decorated = spy(new DecoratedWebDriver(driver));
+
+    List<WebElement> rows = decorated.getActivated().findElements(By.tagName("tr"));
+
+    assertThat(rows.size(), is(2));
+    verify(decorated, never()).createDecorated(any(WebElement.class));
+    assertThat(((Decorated<?>) rows.get(1)).getOriginal(), sameInstance(element2));
+    verify(decorated, times(1)).createDecorated(any(WebElement.class));
+    assertThat(decorated.unwrap(rows), sameInstance(found));
+  }
+
+  @Test
+  void nestedListsAreUnwrappedWithoutDecoratingItems() {
+    WebDriver driver = mock(WebDriver.class);
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    List<WebElement> found = Arrays.asList(element1, element2);
+    when(driver.findElements(By.tagName("tr"))).thenReturn(found);
+    DecoratedWebDriver inner = spy(new DecoratedWebDriver(driver));
+    DecoratedWebDriver outer = spy(new DecoratedWebDriver(inner.getActivated()));
+
+    List<WebElement> rows = outer.getActivated().findElements(By.tagName("tr"));
+
+    assertThat(outer.unwrap(rows), sameInstance(found));
+    verify(inner, never()).createDecorated(any(WebElement.class));
+    verify(outer, never()).createDecorated(any(WebElement.class));
+  }
+
+  @Test
+  void decoratedItemsOfOriginalListAreUnwrappedLazily() {
+    WebDriver driver = mock(WebDriver.class);
+    WebElement element = mock(WebElement.class);
+    DecoratedWebDriver decorated = new DecoratedWebDriver(driver);
+    WebElement nested = new DecoratedWebElement(element, decorated).getActivated();
+    UnaryOperator<Object> decorator = spy(new UnaryOperator<Object>() {
+      @Override
+      public Object apply(Object o) {
+        return o;
+      }
+    });
+    List<Object> list = new DecoratedList<>(Arrays.asList(nested, "text"), decorator);
+
+    List<?> unwrapped = (List<?>) decorated.unwrap(list);
+
+    verifyZeroInteractions(decorator);
+    assertThat(unwrapped, equalTo(Arrays.asList(element, "text")));
+  }
+
+  @Test
+  void originalListIsCheckedForDecoratedItemsOnce() {
+    WebDriver driver = mock(WebDriver.class);
+    WebElement element = mock(WebElement.class);
+    DecoratedWebDriver decorated = new DecoratedWebDriver(driver);
+    WebElement nested = new DecoratedWebElement(element, decorated).getActivated();
+    List<Object> original = spy(new ArrayList<>(Arrays.asList(nested, "text")));
+    List<Object> list = new DecoratedList<>(original, UnaryOperator.identity());
+
+    Object unwrapped = decorated.unwrap(list);
+
+    assertThat(decorated.unwrap(list), sameInstance(unwrapped));
+    verify(original, times(1)).iterator();
+  }
+
+  @Test
+  void plainListsAreUnwrappedWithoutCopying() {
+    WebDriver driver = mock(WebDriver.class);
+    WebElement element = mock(WebElement.class);
+    DecoratedWebDriver decorated = new DecoratedWebDriver(driver);
+    List<Object> list = new ArrayList<>(Arrays.asList("text", new DecoratedWebElement(element, decorated).getActivated()));
+
+    List<?> unwrapped = (List<?>) decorated.unwrap(list);
+    list.set(0, "changed");
+
+    assertThat(unwrapped, equalTo(Arrays.asList("changed", element)));
+  }
+}
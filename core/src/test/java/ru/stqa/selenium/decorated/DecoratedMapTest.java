@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+class DecoratedMapTest {
+
+  private static Map<String, String> original() {
+    Map<String, String> original = new LinkedHashMap<>();
+    original.put("a", "x");
+    original.put("b", "y");
+    return original;
+  }
+
+  @Test
+  void decoratesValuesOnFirstAccess() {
+    UnaryOperator<String> decorator = spy(new UnaryOperator<String>() {
+      @Override
+      public String apply(String s) {
+        return s.toUpperCase();
+      }
+    });
+    Map<String, String> map = new DecoratedMap<>(original(), decorator);
+
+    assertThat(map.size(), is(2));
+    assertThat(map.containsKey("a"), is(true));
+    verifyZeroInteractions(decorator);
+
+    assertThat(map.get("b"), is("Y"));
+    assertThat(map.get("b"), is("Y"));
+    assertThat(map.get("c"), nullValue());
+    verify(decorator, times(1)).apply("y");
+    verifyNoMoreInteractions(decorator);
+  }
+
+  @Test
+  void readsKeysWithoutDecoratingValues() {
+    UnaryOperator<String> decorator = spy(new UnaryOperator<String>() {
+      @Override
+      public String apply(String s) {
+        return s.toUpperCase();
+      }
+    });
+    Map<String, String> map = new DecoratedMap<>(original(), decorator);
+
+    assertThat(map.keySet(), equalTo(original().keySet()));
+    for (String key : map.keySet()) {
+      assertThat(key, notNullValue());
+    }
+    verifyZeroInteractions(decorator);
+  }
+
+  @Test
+  void keysOfModifiedMapAreTheModifiedOnes() {
+    Map<String, String> original = original();
+    Map<String, String> map = new DecoratedMap<>(original, String::toUpperCase);
+
+    map.put("c", "z");
+
+    assertThat(map.keySet().size(), is(3));
+    assertThat(original.keySet().size(), is(2));
+  }
+
+  @Test
+  void iteratesOverDecoratedValues() {
+    Map<String, String> map = new DecoratedMap<>(original(), String::toUpperCase);
+    Map<String, String> expected = new HashMap<>();
+    expected.put("a", "X");
+    expected.put("b", "Y");
+
+    assertThat(new HashMap<>(map), equalTo(expected));
+  }
+
+  @Test
+  void unwrapsToOriginalMapUntilModified() {
+    Map<String, String> original = original();
+    DecoratedMap<String, String> map = new DecoratedMap<>(original, String::toUpperCase);
+
+    assertThat(map.getOriginal(), sameInstance(original));
+
+    map.remove("a");
+
+    assertThat(map.getOriginal(), nullValue());
+    assertThat(map.size(), is(1));
+    assertThat(map.get("b"), is("Y"));
+    assertThat(original.size(), is(2));
+  }
+}
@@ -141,4 +141,16 @@ class DecoratedOptionsTest {
     verifyFunction(WebDriver.Options::logs, logs);
   }
 
+  @Test
+  void testTimeoutsAndWindowAreCached() {
+    Fixture fixture = new Fixture();
+    when(fixture.mocked.timeouts()).thenReturn(mock(WebDriver.Timeouts.class));
+    when(fixture.mocked.window()).thenReturn(mock(WebDriver.Window.class));
+
+    assertThat(fixture.decorated.timeouts(), sameInstance(fixture.decorated.timeouts()));
+    assertThat(fixture.decorated.window(), sameInstance(fixture.decorated.window()));
+    verify(fixture.mocked, times(1)).timeouts();
+    verify(fixture.mocked, times(1)).window();
+  }
+
 }
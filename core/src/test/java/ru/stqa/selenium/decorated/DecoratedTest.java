@@ -18,8 +18,17 @@ package ru.stqa.selenium.decorated;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.sameInstance;
@@ -97,13 +106,138 @@ class DecoratedTest {
     assertThat(fixture.deco.unwrap(decorated), sameInstance(test));
   }
 
+  @Test
+  void testUnwrapNestedWrapped() {
+    Fixture<String> fixture = new Fixture<>("");
+    Named original = () -> "test";
+    Decorated<Named> nested = new DecoratedNamed(new DecoratedNamed(original).getActivated());
+
+    assertThat(nested.getInnermostOriginal(), sameInstance(original));
+    assertThat(((Decorated<?>) nested.getActivated()).getInnermostOriginal(), sameInstance(original));
+    assertThat(fixture.deco.unwrap(nested.getActivated()), sameInstance(original));
+  }
+
+  @Test
+  void testInnermostOriginalIsCachedUntilAnOriginalIsReplaced() {
+    Named original = () -> "test";
+    AtomicInteger walks = new AtomicInteger();
+    DecoratedNamed inner = new DecoratedNamed(original);
+    DecoratedNamed outer = new DecoratedNamed(new CountingNamed(inner, walks));
+    assertThat(walks.get(), equalTo(0));
+
+    assertThat(outer.getInnermostOriginal(), sameInstance(original));
+    assertThat(outer.getInnermostOriginal(), sameInstance(original));
+    assertThat(walks.get(), equalTo(1));
+
+    Named replaced = () -> "replaced";
+    inner.setOriginal(replaced);
+    assertThat(outer.getInnermostOriginal(), sameInstance(replaced));
+    assertThat(outer.getInnermostOriginal(), sameInstance(replaced));
+    assertThat(walks.get(), equalTo(2));
+
+    new DecoratedNamed(() -> "other").setOriginal(() -> "another");
+    assertThat(outer.getInnermostOriginal(), sameInstance(replaced));
+    assertThat(walks.get(), equalTo(2));
+  }
+
+  @Test
+  void testInnermostOriginalIsFoundAgainWhenOriginalOfActivatedNestedDecoratorIsReplaced() {
+    Named original = () -> "test";
+    DecoratedNamed inner = new DecoratedNamed(original);
+    DecoratedNamed middle = new DecoratedNamed(inner.getActivated());
+    DecoratedNamed outer = new DecoratedNamed(middle.getActivated());
+    assertThat(outer.getInnermostOriginal(), sameInstance(original));
+
+    Named replaced = () -> "replaced";
+    inner.setOriginal(replaced);
+
+    assertThat(outer.getInnermostOriginal(), sameInstance(replaced));
+    assertThat(middle.getInnermostOriginal(), sameInstance(replaced));
+  }
+
+  @Test
+  void testInnermostOriginalIsNotCachedOverDecoratorsThatCannotTellReplacements() {
+    Named original = () -> "test";
+    AtomicInteger walks = new AtomicInteger();
+    DecoratedNamed outer = new DecoratedNamed(new UntrackedNamed(new DecoratedNamed(original), walks));
+
+    assertThat(outer.getInnermostOriginal(), sameInstance(original));
+    assertThat(outer.getInnermostOriginal(), sameInstance(original));
+    assertThat(walks.get(), equalTo(2));
+  }
+
+  // a nested decorator that does not tell when its originals are replaced
+  static class UntrackedNamed extends CountingNamed {
+    UntrackedNamed(Decorated<Named> decorated, AtomicInteger walks) {
+      super(decorated, walks);
+    }
+
+    @Override
+    public boolean addOriginalListener(Runnable listener) {
+      return false;
+    }
+  }
+
+  // a nested decorator that counts walks down to the innermost original
+  static class CountingNamed implements Named, Decorated<Named> {
+    private final Decorated<Named> decorated;
+    private final AtomicInteger walks;
+
+    CountingNamed(Decorated<Named> decorated, AtomicInteger walks) {
+      this.decorated = decorated;
+      this.walks = walks;
+    }
+
+    @Override
+    public String getName() {
+      return decorated.getOriginal().getName();
+    }
+
+    @Override
+    public Named getOriginal() {
+      return decorated.getOriginal();
+    }
+
+    @Override
+    public Named getActivated() {
+      return this;
+    }
+
+    @Override
+    public Named getInnermostOriginal() {
+      walks.incrementAndGet();
+      return decorated.getInnermostOriginal();
+    }
+
+    @Override
+    public boolean addOriginalListener(Runnable listener) {
+      return decorated.addOriginalListener(listener);
+    }
+
+    @Override
+    public void beforeMethod(Method method, Object[] args) {}
+
+    @Override
+    public Object callMethod(Method method, Object[] args) {
+      return null;
+    }
+
+    @Override
+    public void afterMethod(Method method, Object result, Object[] args) {}
+
+    @Override
+    public Object onError(Method method, InvocationTargetException e, Object[] args) {
+      return null;
+    }
+  }
+
   @Test
   void testUnwrapListOfUnwrapped() {
     Fixture<String> fixture = new Fixture<>("");
     String test = "test";
     List<Object> list = new ArrayList<>();
     list.add(test);
-    List<Object> unwrapped = (List<Object>) fixture.deco.unwrap(list);
+    List<?> unwrapped = (List<?>) fixture.deco.unwrap(list);
     assertThat(unwrapped.size(), equalTo(1));
     assertThat(unwrapped.get(0), sameInstance(test));
   }
@@ -115,9 +249,83 @@ class DecoratedTest {
     Decorated<String> decorated = new DecoratedString(test);
     List<Object> list = new ArrayList<>();
     list.add(decorated);
-    List<Object> unwrapped = (List<Object>) fixture.deco.unwrap(list);
+    List<?> unwrapped = (List<?>) fixture.deco.unwrap(list);
     assertThat(unwrapped.size(), equalTo(1));
     assertThat(unwrapped.get(0), sameInstance(test));
   }
 
+  interface Named {
+    String getName();
+  }
+
+  static class DecoratedNamed extends DecoratedTopmost<Named> implements Named {
+    DecoratedNamed(Named original) {
+      super(original);
+    }
+
+    @Override
+    public String getName() {
+      return getOriginal().getName();
+    }
+  }
+
+  @Test
+  void testConcurrentActivationPublishesOneProxy() throws Exception {
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 200; round++) {
+        DecoratedNamed deco = new DecoratedNamed(() -> "name");
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Future<Named>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          results.add(executor.submit(() -> {
+            barrier.await();
+            return deco.getActivated();
+          }));
+        }
+        Named first = results.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Named> result : results) {
+          assertThat(result.get(10, TimeUnit.SECONDS), sameInstance(first));
+        }
+        assertThat(deco.getActivated(), sameInstance(first));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testReplacedOriginalIsVisibleToOtherThreads() throws Exception {
+    DecoratedNamed deco = new DecoratedNamed(() -> "old");
+    Named activated = deco.getActivated();
+    AtomicBoolean stop = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> readers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        readers.add(executor.submit(() -> {
+          while (! stop.get()) {
+            String name = activated.getName();
+            if (name.equals("new")) {
+              return true;
+            }
+            if (! name.equals("old")) {
+              return false;
+            }
+          }
+          return activated.getName().equals("new");
+        }));
+      }
+      Thread.sleep(20);
+      deco.setOriginal(() -> "new");
+      for (Future<Boolean> reader : readers) {
+        assertThat(reader.get(10, TimeUnit.SECONDS), equalTo(true));
+      }
+    } finally {
+      stop.set(true);
+      executor.shutdownNow();
+    }
+  }
+
 }
@@ -19,10 +19,17 @@ package ru.stqa.selenium.decorated;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -114,7 +121,109 @@ class DecoratedTopmostTest {
     inOrder.verify(spy).callMethod(any(Method.class), any(Object[].class));
     inOrder.verify(spy).callMethodGlobal(any(Decorated.class), any(Method.class), any(Object[].class));
     inOrder.verify(spy).onError(any(Method.class), any(InvocationTargetException.class), any(Object[].class));
-    inOrder.verify(spy).onErrorGlobal(any(Decorated.class), any(Method.class), any(InvocationTargetException.class), any(Object[].class));
+    inOrder.verify(spy).onErrorGlobal(any(Decorated.class), any(Method.class), any(RuntimeException.class), any(Object[].class));
+  }
+
+  @Test
+  void testSkipsHooksOfFilteredOutMethods() throws Throwable {
+    Target target = mock(Target.class);
+    Fixture fixture = new Fixture(target);
+    when(target.hello("world")).thenReturn("test");
+    Predicate<Method> filter = spy(new Predicate<Method>() {
+      @Override
+      public boolean test(Method method) {
+        return false;
+      }
+    });
+    DecoratedTopmost<Target> spy = spy(fixture.deco);
+    spy.setMethodFilter(filter);
+    Target decorated = new Activator<Target>().activate(spy);
+
+    assertThat(decorated.hello("world"), equalTo("test"));
+    assertThat(decorated.hello("world"), equalTo("test"));
+
+    verify(spy, never()).beforeMethodGlobal(any(Decorated.class), any(Method.class), any(Object[].class));
+    verify(spy, never()).afterMethodGlobal(any(Decorated.class), any(Method.class), any(), any(Object[].class));
+    verify(filter, times(1)).test(any(Method.class));
+  }
+
+  @Test
+  void testForgetsResultsOfReplacedMethodFilter() throws Throwable {
+    Target target = mock(Target.class);
+    Fixture fixture = new Fixture(target);
+    DecoratedTopmost<Target> spy = spy(fixture.deco);
+    spy.setMethodFilter(method -> false);
+    Target decorated = new Activator<Target>().activate(spy);
+
+    decorated.hello("world");
+    spy.setMethodFilter(method -> true);
+    decorated.hello("world");
+    spy.setMethodFilter(null);
+    decorated.hello("world");
+
+    verify(spy, times(2)).beforeMethodGlobal(any(Decorated.class), any(Method.class), any(Object[].class));
+    verify(spy, times(2)).afterMethodGlobal(any(Decorated.class), any(Method.class), any(), any(Object[].class));
+  }
+
+  @Test
+  void testRetriesOnceWhenErrorHandlerAsksForRetry() {
+    Target target = mock(Target.class);
+    when(target.hello("world")).thenThrow(IllegalStateException.class).thenReturn("test");
+    Target decorated = new DecoratedTarget(target) {
+      @Override
+      public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) {
+        return RETRY;
+      }
+    }.getActivated();
+
+    assertThat(decorated.hello("world"), equalTo("test"));
+    verify(target, times(2)).hello("world");
+  }
+
+  @Test
+  void testThrowsErrorOfRetriedCall() throws Throwable {
+    Target target = mock(Target.class);
+    when(target.hello("world")).thenThrow(IllegalStateException.class).thenThrow(IllegalArgumentException.class);
+    DecoratedTarget deco = spy(new DecoratedTarget(target) {
+      @Override
+      public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) {
+        return RETRY;
+      }
+    });
+    Target decorated = new Activator<Target>().activate(deco);
+
+    assertThrows(IllegalArgumentException.class, () -> decorated.hello("world"));
+    verify(target, times(2)).hello("world");
+    verify(deco, times(1)).onErrorGlobal(any(Decorated.class), any(Method.class), any(Throwable.class), any(Object[].class));
+  }
+
+  @Test
+  void testPassesTargetExceptionItselfToErrorHandler() {
+    Target target = mock(Target.class);
+    IllegalStateException failure = new IllegalStateException();
+    when(target.hello("world")).thenThrow(failure);
+    List<Throwable> errors = new ArrayList<>();
+    Target decorated = new DecoratedTarget(target) {
+      @Override
+      public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) {
+        errors.add(error);
+        return "recovered";
+      }
+    }.getActivated();
+
+    assertThat(decorated.hello("world"), equalTo("recovered"));
+    assertThat(errors, equalTo(Collections.singletonList(failure)));
+  }
+
+  @Test
+  void testWrapsCheckedExceptionsRethrownByDefault() throws Exception {
+    Callable<?> target = mock(Callable.class);
+    IOException failure = new IOException();
+    when(target.call()).thenThrow(failure);
+    Callable<?> decorated = new DecoratedTopmost<Callable<?>>(target) {}.getActivated();
+
+    RuntimeException thrown = assertThrows(RuntimeException.class, decorated::call);
+    assertThat(thrown.getCause(), sameInstance(failure));
   }
 
 }
@@ -22,8 +22,11 @@ import org.openqa.selenium.interactions.*;
 import org.openqa.selenium.interactions.internal.Coordinates;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -127,9 +130,9 @@ class DecoratedWebDriverTest {
     when(fixture.mocked.findElements(By.id("test"))).thenReturn(list);
 
     List<WebElement> proxyList = fixture.decorated.findElements(By.id("test"));
-    // TODO: Why same instance?????
-    assertThat(list, sameInstance(proxyList));
+    assertThat(list, not(sameInstance(proxyList)));
     assertThat(found, not(sameInstance(proxyList.get(0))));
+    assertThat(found, sameInstance(list.get(0)));
     verify(fixture.mocked, times(1)).findElements(By.id("test"));
 
     proxyList.get(0).isDisplayed();
@@ -176,6 +179,37 @@ class DecoratedWebDriverTest {
     verifyDecoratingFunction(WebDriver::manage, options, WebDriver.Options::deleteAllCookies);
   }
 
+  @Test
+  void testChildDecoratorsAreCached() {
+    Fixture fixture = new Fixture();
+    when(fixture.mocked.manage()).thenReturn(mock(WebDriver.Options.class));
+    when(fixture.mocked.navigate()).thenReturn(mock(WebDriver.Navigation.class));
+    when(fixture.mocked.switchTo()).thenReturn(mock(WebDriver.TargetLocator.class));
+
+    assertThat(fixture.decorated.manage(), sameInstance(fixture.decorated.manage()));
+    assertThat(fixture.decorated.navigate(), sameInstance(fixture.decorated.navigate()));
+    assertThat(fixture.decorated.switchTo(), sameInstance(fixture.decorated.switchTo()));
+    verify(fixture.mocked, times(1)).manage();
+    verify(fixture.mocked, times(1)).navigate();
+    verify(fixture.mocked, times(1)).switchTo();
+  }
+
+  @Test
+  void testChildDecoratorsAreRefreshedWithOriginal() {
+    Fixture fixture = new Fixture();
+    WebDriver.Options options = mock(WebDriver.Options.class);
+    when(fixture.mocked.manage()).thenReturn(mock(WebDriver.Options.class));
+    WebDriver.Options cached = fixture.decorated.manage();
+
+    WebDriver newDriver = mock(WebDriver.class);
+    when(newDriver.manage()).thenReturn(options);
+    fixture.decorated.setOriginal(newDriver);
+
+    assertThat(fixture.decorated.manage(), not(sameInstance(cached)));
+    fixture.decorated.manage().deleteAllCookies();
+    verify(options).deleteAllCookies();
+  }
+
   @Test
   void testGetKeyboard() {
     final Keyboard keyboard = mock(Keyboard.class);
@@ -209,6 +243,72 @@ class DecoratedWebDriverTest {
     verifyFunction($ -> ((JavascriptExecutor) $).executeScript("..."), 1);
   }
 
+  @Test
+  void testExecuteScriptUnwrapsDecoratedArguments() {
+    Fixture fixture = new Fixture();
+    WebElement element = mock(WebElement.class);
+    DecoratedWebDriver inner = new DecoratedWebDriver(mock(WebDriver.class));
+    WebElement nestedElement = new DecoratedWebElement(element, inner).getActivated();
+    WebElement decoratedElement = new DecoratedWebElement(nestedElement, fixture.decorated).getActivated();
+
+    fixture.decorated.executeScript("...", decoratedElement, "text");
+
+    verify((JavascriptExecutor) fixture.mocked).executeScript("...", element, "text");
+  }
+
+  @Test
+  void testExecuteScriptWrapsElementsInListsAndMaps() {
+    Fixture fixture = new Fixture();
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    Map<String, Object> map = new HashMap<>();
+    map.put("element", element2);
+    map.put("number", 1L);
+    List<Object> result = new ArrayList<>();
+    result.add(element1);
+    result.add(map);
+    when(((JavascriptExecutor) fixture.mocked).executeScript("...")).thenReturn(result);
+
+    List<?> wrapped = (List<?>) fixture.decorated.executeScript("...");
+
+    assertThat(((Decorated<?>) wrapped.get(0)).getOriginal(), sameInstance(element1));
+    Map<?, ?> wrappedMap = (Map<?, ?>) wrapped.get(1);
+    assertThat(((Decorated<?>) wrappedMap.get("element")).getOriginal(), sameInstance(element2));
+    assertThat(wrappedMap.get("number"), equalTo(1L));
+    assertThat(result.get(0), sameInstance(element1));
+  }
+
+  @Test
+  void testExecuteScriptUnwrapsElementsInListArguments() {
+    Fixture fixture = new Fixture();
+    WebElement element = mock(WebElement.class);
+    WebElement decoratedElement = new DecoratedWebElement(element, fixture.decorated).getActivated();
+    List<Object> list = new ArrayList<>();
+    list.add(decoratedElement);
+    list.add("text");
+
+    fixture.decorated.executeScript("...", list);
+
+    List<Object> expected = new ArrayList<>();
+    expected.add(element);
+    expected.add("text");
+    verify((JavascriptExecutor) fixture.mocked).executeScript("...", expected);
+  }
+
+  @Test
+  void testExecuteScriptPassesArgumentsWithNothingToUnwrapAsTheyAre() {
+    Fixture fixture = new Fixture();
+    List<Object> list = new ArrayList<>();
+    list.add("text");
+    list.add(Collections.singletonMap("number", 1L));
+    Map<String, Object> map = new HashMap<>();
+    map.put("list", Collections.singletonList("text"));
+
+    fixture.decorated.executeScript("...", list, map);
+
+    verify((JavascriptExecutor) fixture.mocked).executeScript(eq("..."), same(list), same(map));
+  }
+
   @Test
   void testExecuteScriptThatReturnsAnElement() {
     WebElement element = mock(WebElement.class);
@@ -234,4 +334,33 @@ class DecoratedWebDriverTest {
     verifyDecoratingFunction($ -> (WebElement) ((JavascriptExecutor) $).executeAsyncScript("..."), element, WebElement::click);
   }
 
+  @Test
+  void testFindElementReturnsNewElementsByDefault() {
+    Fixture fixture = new Fixture();
+    WebElement found = mock(WebElement.class);
+    when(fixture.mocked.findElement(By.id("test"))).thenReturn(found);
+
+    WebElement first = fixture.decorated.getActivated().findElement(By.id("test"));
+    WebElement second = fixture.decorated.getActivated().findElement(By.id("test"));
+
+    assertThat(first, not(sameInstance(second)));
+  }
+
+  @Test
+  void testInternedElements() {
+    Fixture fixture = new Fixture();
+    fixture.decorated.setInternElements(true);
+    WebElement found = mock(WebElement.class);
+    when(fixture.mocked.findElement(By.id("test"))).thenReturn(found);
+    when(fixture.mocked.findElements(By.id("test"))).thenReturn(Collections.singletonList(found));
+
+    WebElement first = fixture.decorated.getActivated().findElement(By.id("test"));
+    WebElement second = fixture.decorated.getActivated().findElement(By.id("test"));
+    WebElement third = fixture.decorated.getActivated().findElements(By.id("test")).get(0);
+
+    assertThat(first, sameInstance(second));
+    assertThat(first, sameInstance(third));
+    assertThat(first.equals(second), is(true));
+  }
+
 }
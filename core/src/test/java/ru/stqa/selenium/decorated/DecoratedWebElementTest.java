@@ -179,9 +179,9 @@ class DecoratedWebElementTest {
     when(fixture.mocked.findElements(By.id("test"))).thenReturn(list);
 
     List<WebElement> proxyList = fixture.decorated.findElements(By.id("test"));
-    // TODO: Why same instance?????
-    assertThat(list, sameInstance(proxyList));
+    assertThat(list, not(sameInstance(proxyList)));
     assertThat(found, not(sameInstance(proxyList.get(0))));
+    assertThat(found, sameInstance(list.get(0)));
     verify(fixture.mocked, times(1)).findElements(By.id("test"));
 
     proxyList.get(0).isDisplayed();
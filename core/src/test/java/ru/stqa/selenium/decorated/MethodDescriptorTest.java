@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.Keyboard;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class MethodDescriptorTest {
+
+  @Test
+  void descriptorsAreCachedPerMethod() throws Exception {
+    MethodDescriptor descriptor = MethodDescriptor.of(WebDriver.class.getMethod("get", String.class));
+
+    assertThat(MethodDescriptor.of(WebDriver.class.getMethod("get", String.class)), sameInstance(descriptor));
+    assertThat(MethodDescriptor.of(WebDriver.class.getMethod("getTitle")).getId(), not(descriptor.getId()));
+  }
+
+  @Test
+  void precomputesEventNames() throws Exception {
+    MethodDescriptor descriptor = MethodDescriptor.of(WebElement.class.getMethod("getAttribute", String.class));
+
+    assertThat(descriptor.getBeforeEventName(), is("beforeGetAttribute"));
+    assertThat(descriptor.getAfterEventName(), is("afterGetAttribute"));
+  }
+
+  @Test
+  void detectsVoidAndUnwrapMethods() throws Exception {
+    assertThat(MethodDescriptor.of(WebElement.class.getMethod("click")).isVoid(), is(true));
+    assertThat(MethodDescriptor.of(WebDriver.Timeouts.class.getMethod("implicitlyWait", long.class, TimeUnit.class))
+      .isVoid(), is(true));
+    assertThat(MethodDescriptor.of(WebElement.class.getMethod("getText")).isVoid(), is(false));
+
+    assertThat(MethodDescriptor.of(Decorated.class.getMethod("getOriginal")).isUnwrap(), is(true));
+    assertThat(MethodDescriptor.of(WebElement.class.getMethod("getText")).isUnwrap(), is(false));
+    assertThat(MethodDescriptor.of(Decorated.class.getMethod("getOriginal")).skipsHooks(), is(true));
+    assertThat(MethodDescriptor.of(Decorated.class.getMethod("addOriginalListener", Runnable.class)).skipsHooks(),
+      is(true));
+    assertThat(MethodDescriptor.of(WebElement.class.getMethod("getText")).skipsHooks(), is(false));
+  }
+
+  @Test
+  void assignsCategoriesByDeclaringInterface() throws Exception {
+    assertThat(MethodDescriptor.of(WebDriver.class.getMethod("getTitle")).getCategory(),
+      is(MethodDescriptor.Category.DRIVER));
+    assertThat(MethodDescriptor.of(WebElement.class.getMethod("click")).getCategory(),
+      is(MethodDescriptor.Category.ELEMENT));
+    assertThat(MethodDescriptor.of(WebDriver.Navigation.class.getMethod("back")).getCategory(),
+      is(MethodDescriptor.Category.NAVIGATION));
+    assertThat(MethodDescriptor.of(WebDriver.TargetLocator.class.getMethod("defaultContent")).getCategory(),
+      is(MethodDescriptor.Category.TARGET_LOCATOR));
+    assertThat(MethodDescriptor.of(Alert.class.getMethod("accept")).getCategory(),
+      is(MethodDescriptor.Category.ALERT));
+    assertThat(MethodDescriptor.of(WebDriver.Window.class.getMethod("maximize")).getCategory(),
+      is(MethodDescriptor.Category.OPTIONS));
+    assertThat(MethodDescriptor.of(Keyboard.class.getMethod("sendKeys", CharSequence[].class)).getCategory(),
+      is(MethodDescriptor.Category.INPUT));
+    assertThat(MethodDescriptor.of(Object.class.getMethod("toString")).getCategory(),
+      is(MethodDescriptor.Category.OTHER));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class MethodInvokerTest {
+
+  public interface Target {
+    void run();
+    int count(String what);
+    String join(String separator, String... parts);
+    void fail() throws IOException;
+  }
+
+  private interface HiddenTarget {
+    String hello();
+  }
+
+  @Test
+  void canInvokeMethodWithoutArguments() throws Throwable {
+    Target target = mock(Target.class);
+
+    Object res = MethodInvoker.invoke(Target.class.getMethod("run"), target, null);
+
+    assertThat(res, nullValue());
+    verify(target).run();
+  }
+
+  @Test
+  void canInvokeMethodReturningPrimitive() throws Throwable {
+    Target target = mock(Target.class);
+    when(target.count("a")).thenReturn(3);
+
+    Object res = MethodInvoker.invoke(Target.class.getMethod("count", String.class), target, new Object[]{"a"});
+
+    assertThat(res, equalTo(3));
+  }
+
+  @Test
+  void canInvokeVarargsMethod() throws Throwable {
+    Target target = mock(Target.class);
+    when(target.join(",", "a", "b")).thenReturn("a,b");
+
+    Object res = MethodInvoker.invoke(Target.class.getMethod("join", String.class, String[].class),
+      target, new Object[]{",", new String[]{"a", "b"}});
+
+    assertThat(res, equalTo("a,b"));
+  }
+
+  @Test
+  void wrapsExceptionsIntoInvocationTargetException() throws Throwable {
+    Target target = mock(Target.class);
+    IOException failure = new IOException();
+    doThrow(failure).when(target).fail();
+
+    InvocationTargetException e = assertThrows(InvocationTargetException.class,
+      () -> MethodInvoker.invoke(Target.class.getMethod("fail"), target, null));
+
+    assertThat(e.getTargetException(), sameInstance(failure));
+    assertThat(e.getStackTrace().length, is(0));
+  }
+
+  @Test
+  void doesNotWrapFailuresOfTheCallItself() throws Throwable {
+    Target target = mock(Target.class);
+
+    assertThrows(NullPointerException.class,
+      () -> MethodInvoker.invoke(Target.class.getMethod("run"), null, null));
+    assertThrows(IllegalArgumentException.class,
+      () -> MethodInvoker.invoke(Target.class.getMethod("run"), "not a target", null));
+    assertThrows(IllegalArgumentException.class,
+      () -> MethodInvoker.invoke(Target.class.getMethod("count", String.class), target, new Object[0]));
+    assertThrows(IllegalArgumentException.class,
+      () -> MethodInvoker.invoke(Target.class.getMethod("count", String.class), target, new Object[]{1}));
+    verifyNoMoreInteractions(target);
+  }
+
+  @Test
+  void canInvokeMethodOfNonPublicInterface() throws Throwable {
+    HiddenTarget target = mock(HiddenTarget.class);
+    when(target.hello()).thenReturn("world");
+
+    Object res = MethodInvoker.invoke(HiddenTarget.class.getMethod("hello"), target, new Object[0]);
+
+    assertThat(res, equalTo("world"));
+  }
+
+}
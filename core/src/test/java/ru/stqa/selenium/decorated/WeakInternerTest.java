@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class WeakInternerTest {
+
+  @Test
+  void returnsTheSameValueForEqualKeys() {
+    WeakInterner<String, Object> interner = new WeakInterner<>();
+    Object value = interner.intern("key", key -> new Object());
+
+    assertThat(interner.intern(new String("key"), key -> new Object()), sameInstance(value));
+    assertThat(interner.intern("other", key -> new Object()), not(sameInstance(value)));
+  }
+
+  @Test
+  void forgetsUnreachableValues() throws InterruptedException {
+    WeakInterner<String, Object> interner = new WeakInterner<>();
+    WeakReference<Object> value = new WeakReference<>(interner.intern("key", key -> new Object()));
+
+    for (int i = 0; i < 50 && (value.get() != null || interner.size() > 0); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(value.get(), nullValue());
+    assertThat(interner.size(), is(0));
+  }
+}
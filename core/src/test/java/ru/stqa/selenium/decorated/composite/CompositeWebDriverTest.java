@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.composite;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import ru.stqa.selenium.decorated.Decorated;
+import ru.stqa.selenium.decorated.DecoratedWebDriver;
+import ru.stqa.selenium.decorated.events.EventFiringWebDriver;
+import ru.stqa.selenium.decorated.events.TimedWebDriverListener;
+import ru.stqa.selenium.decorated.events.WebDriverEvent;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class CompositeWebDriverTest {
+
+  private static final long SLOW_MILLIS = 20;
+
+  static class RecordingWebDriver extends DecoratedWebDriver {
+
+    private final String name;
+    private final List<String> log;
+
+    RecordingWebDriver(WebDriver driver, String name, List<String> log) {
+      super(driver);
+      this.name = name;
+      this.log = log;
+    }
+
+    @Override
+    public void beforeMethodGlobal(Decorated<?> target, Method method, Object[] args) {
+      log.add(name + ".before." + method.getName());
+    }
+
+    @Override
+    public void afterMethodGlobal(Decorated<?> target, Method method, Object res, Object[] args) {
+      log.add(name + ".after." + method.getName());
+    }
+
+    @Override
+    public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
+      log.add(name + ".error." + error.getClass().getSimpleName());
+      return super.onErrorGlobal(target, method, error, args);
+    }
+  }
+
+  @Test
+  void callsHooksOfLayersInNestingOrder() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    WebElement mockedElement = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("id"))).thenReturn(mockedElement);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log))
+      .add(d -> new RecordingWebDriver(d, "inner", log))
+      .build().getActivated();
+    driver.findElement(By.id("id")).click();
+
+    assertThat(log, equalTo(asList(
+      "outer.before.findElement", "inner.before.findElement", "inner.after.findElement", "outer.after.findElement",
+      "outer.before.click", "inner.before.click", "inner.after.click", "outer.after.click")));
+    verify(mockedElement).click();
+  }
+
+  @Test
+  void wrapsElementsOnce() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    WebElement mockedElement = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("id"))).thenReturn(mockedElement);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log))
+      .add(d -> new RecordingWebDriver(d, "inner", log))
+      .build().getActivated();
+    WebElement element = driver.findElement(By.id("id"));
+
+    assertThat(((Decorated<?>) element).getOriginal(), sameInstance(mockedElement));
+  }
+
+  @Test
+  void passesErrorsFromInnerToOuterLayers() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    when(mockedDriver.findElement(By.id("id"))).thenThrow(NoSuchElementException.class);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log))
+      .add(d -> new RecordingWebDriver(d, "inner", log))
+      .build().getActivated();
+
+    assertThrows(NoSuchElementException.class, () -> driver.findElement(By.id("id")));
+    assertThat(log, equalTo(asList(
+      "outer.before.findElement", "inner.before.findElement",
+      "inner.error.NoSuchElementException", "outer.error.NoSuchElementException")));
+  }
+
+  @Test
+  void outerLayerCanHandleErrorOfInnerLayer() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    when(mockedDriver.getTitle()).thenThrow(WebDriverException.class);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log) {
+        @Override
+        public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) {
+          return "recovered";
+        }
+      })
+      .add(d -> new RecordingWebDriver(d, "inner", log))
+      .build().getActivated();
+
+    assertThat(driver.getTitle(), is("recovered"));
+    assertThat(log, hasItem("inner.error.WebDriverException"));
+  }
+
+  @Test
+  void respectsMethodFiltersOfLayers() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log))
+      .add(d -> {
+        RecordingWebDriver layer = new RecordingWebDriver(d, "inner", log);
+        layer.setMethodFilter(m -> ! m.getName().equals("getTitle"));
+        return layer;
+      })
+      .build().getActivated();
+    driver.getTitle();
+
+    assertThat(log, equalTo(asList("outer.before.getTitle", "outer.after.getTitle")));
+  }
+
+  @Test
+  void afterHooksOfOuterLayersGetValueOfInnerLayerThatHandledError() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    when(mockedDriver.getTitle()).thenThrow(WebDriverException.class);
+    List<String> log = new ArrayList<>();
+
+    WebDriver driver = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", log))
+      .add(d -> new RecordingWebDriver(d, "inner", log) {
+        @Override
+        public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) {
+          log.add("inner.recovered");
+          return "recovered";
+        }
+      })
+      .build().getActivated();
+
+    assertThat(driver.getTitle(), is("recovered"));
+    assertThat(log, equalTo(asList(
+      "outer.before.getTitle", "inner.before.getTitle", "inner.recovered", "outer.after.getTitle")));
+  }
+
+  @Test
+  void eventFiringLayerGetsTheSameEventsAndTimingsAsNestedDriver() {
+    List<String> nestedLog = new ArrayList<>();
+    EventFiringWebDriver nestedEvents = new EventFiringWebDriver(slowDriver());
+    listen(nestedEvents, nestedLog);
+    WebDriver nested = new RecordingWebDriver(nestedEvents.getActivated(), "outer", nestedLog).getActivated();
+
+    List<String> compositeLog = new ArrayList<>();
+    CompositeWebDriver composite = CompositeWebDriver.builder(slowDriver())
+      .add(d -> new RecordingWebDriver(d, "outer", compositeLog))
+      .add(EventFiringWebDriver::new)
+      .build();
+    EventFiringWebDriver compositeEvents = composite.getLayer(EventFiringWebDriver.class);
+    listen(compositeEvents, compositeLog);
+    WebDriver composed = composite.getActivated();
+
+    for (WebDriver driver : asList(nested, composed)) {
+      driver.getTitle();
+      assertThrows(NoSuchElementException.class, () -> driver.findElement(By.id("id")));
+    }
+    nestedEvents.flushEvents();
+    compositeEvents.flushEvents();
+
+    assertThat(compositeLog, equalTo(nestedLog));
+    assertThat(compositeLog, equalTo(asList(
+      "outer.before.getTitle", "afterAnyCall.getTitle.slow", "outer.after.getTitle",
+      "outer.before.findElement", "outer.error.NoSuchElementException",
+      "batch.getTitle.slow", "batch.findElement.NoSuchElementException.slow")));
+  }
+
+  private static WebDriver slowDriver() {
+    WebDriver driver = mock(WebDriver.class);
+    when(driver.getTitle()).thenAnswer(invocation -> {
+      Thread.sleep(SLOW_MILLIS);
+      return "title";
+    });
+    when(driver.findElement(By.id("id"))).thenAnswer(invocation -> {
+      Thread.sleep(SLOW_MILLIS);
+      throw new NoSuchElementException("id");
+    });
+    return driver;
+  }
+
+  private static void listen(EventFiringWebDriver driver, List<String> log) {
+    driver.addListener(new TimedWebDriverListener() {
+      @Override
+      public void afterAnyCall(Object target, Method method, Object result, Object[] args, long nanos) {
+        log.add("afterAnyCall." + method.getName() + speed(nanos));
+      }
+    });
+    driver.addBatchListener(events -> {
+      for (WebDriverEvent event : events) {
+        log.add("batch." + event.getDescriptor().getMethod().getName()
+          + (event.getFailure() != null ? "." + event.getFailure().getClass().getSimpleName() : "")
+          + speed(event.getDurationNanos()));
+      }
+    });
+  }
+
+  private static String speed(long nanos) {
+    return nanos >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS) ? ".slow" : ".fast";
+  }
+
+  @Test
+  void givesAccessToLayers() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    CompositeWebDriver composite = CompositeWebDriver.builder(mockedDriver)
+      .add(d -> new RecordingWebDriver(d, "outer", new ArrayList<>()))
+      .build();
+
+    assertThat(composite.getLayer(RecordingWebDriver.class).getOriginal(), sameInstance(mockedDriver));
+    assertThrows(IllegalArgumentException.class, () -> composite.getLayer(CompositeWebDriver.class));
+  }
+}
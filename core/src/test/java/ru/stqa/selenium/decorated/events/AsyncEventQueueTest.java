@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncEventQueueTest {
+
+  @Test
+  void deliversEventsInOrderOnConsumerThread() throws InterruptedException {
+    AsyncEventQueue queue = new AsyncEventQueue(4, Backpressure.BLOCK, "test");
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+    for (int i = 0; i < 100; i++) {
+      int n = i;
+      queue.submit(() -> {
+        delivered.add(n);
+        threads.add(Thread.currentThread());
+      });
+    }
+
+    assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(delivered.size(), is(100));
+    for (int i = 0; i < 100; i++) {
+      assertThat(delivered.get(i), is(i));
+      assertThat(threads.get(i), not(sameInstance(Thread.currentThread())));
+    }
+    assertThat(queue.getDropped(), is(0L));
+    queue.close();
+  }
+
+  @Test
+  void dropsEventsWhenFull() throws InterruptedException {
+    AsyncEventQueue queue = new AsyncEventQueue(2, Backpressure.DROP, "test");
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    queue.submit(() -> awaitQuietly(release));
+    // give the consumer time to take the blocking event out of the buffer
+    Thread.sleep(100);
+
+    for (int i = 0; i < 10; i++) {
+      int n = i;
+      queue.submit(() -> delivered.add(n));
+    }
+    release.countDown();
+
+    assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(delivered.size(), is(2));
+    assertThat(queue.getDropped(), is(8L));
+    queue.close();
+  }
+
+  @Test
+  void samplesEventsWhenFull() throws Exception {
+    AsyncEventQueue queue = new AsyncEventQueue(1, Backpressure.SAMPLE, "test");
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    queue.submit(() -> awaitQuietly(release));
+    Thread.sleep(100);
+    queue.submit(() -> delivered.add(0));
+
+    for (int i = 1; i < AsyncEventQueue.SAMPLE_RATE; i++) {
+      int n = i;
+      queue.submit(() -> delivered.add(n));
+    }
+    assertThat(queue.getDropped(), is((long) AsyncEventQueue.SAMPLE_RATE - 1));
+
+    // the tenth overflowing event waits for room
+    Thread sampled = new Thread(() -> queue.submit(() -> delivered.add(AsyncEventQueue.SAMPLE_RATE)));
+    sampled.start();
+    release.countDown();
+    sampled.join(10000);
+
+    assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(delivered, equalTo(Arrays.asList(0, AsyncEventQueue.SAMPLE_RATE)));
+    assertThat(queue.getDropped(), is((long) AsyncEventQueue.SAMPLE_RATE - 1));
+    queue.close();
+  }
+
+  @Test
+  void closeDeliversPendingEvents() {
+    AsyncEventQueue queue = new AsyncEventQueue(100, Backpressure.BLOCK, "test");
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < 50; i++) {
+      int n = i;
+      queue.submit(() -> delivered.add(n));
+    }
+
+    queue.close();
+    assertThat(delivered.size(), is(50));
+
+    queue.submit(() -> delivered.add(50));
+    assertThat(delivered.size(), is(51));
+  }
+
+  @Test
+  void deliversEventsSubmittedByListenerInConsumerThreadInOrder() throws InterruptedException {
+    AsyncEventQueue queue = new AsyncEventQueue(1, Backpressure.BLOCK, "test");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    queue.submit(() -> {
+      started.countDown();
+      awaitQuietly(release);
+      // the buffer is full, waiting for space would never end
+      queue.submit(() -> delivered.add(1));
+      queue.submit(() -> delivered.add(2));
+    });
+    assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+    queue.submit(() -> delivered.add(3));
+    release.countDown();
+
+    assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(delivered, equalTo(Arrays.asList(3, 1, 2)));
+    queue.close();
+  }
+
+  @Test
+  void canBeClosedByListenerInConsumerThread() throws InterruptedException {
+    AsyncEventQueue queue = new AsyncEventQueue(10, Backpressure.BLOCK, "test");
+    CountDownLatch closed = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    queue.submit(() -> {
+      awaitQuietly(release);
+      queue.close();
+      closed.countDown();
+    });
+    queue.submit(() -> delivered.add(1));
+    release.countDown();
+
+    assertThat(closed.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(delivered, equalTo(Collections.singletonList(1)));
+
+    queue.submit(() -> delivered.add(2));
+    assertThat(delivered, equalTo(Arrays.asList(1, 2)));
+    queue.close();
+  }
+
+  @Test
+  void deliversEventsSubmittedWhileClosing() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round = 0; round < 50; round++) {
+        AsyncEventQueue queue = new AsyncEventQueue(2, Backpressure.BLOCK, "test");
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          submitters.add(executor.submit(() -> {
+            awaitQuietly(start);
+            for (int j = 0; j < 100; j++) {
+              queue.submit(delivered::incrementAndGet);
+            }
+          }));
+        }
+        start.countDown();
+        queue.close();
+        for (Future<?> submitter : submitters) {
+          submitter.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(queue.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(delivered.get(), is(400));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void deliversEventsSubmittedWhileClosingAfterPendingEvents() throws Exception {
+    AsyncEventQueue queue = new AsyncEventQueue(10, Backpressure.BLOCK, "test");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    queue.submit(() -> {
+      started.countDown();
+      awaitQuietly(release);
+      delivered.add(1);
+    });
+    queue.submit(() -> delivered.add(2));
+    assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+
+    Thread closer = new Thread(queue::close);
+    closer.start();
+    while (closer.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+    Thread late = new Thread(() -> queue.submit(() -> delivered.add(3)));
+    late.start();
+    Thread.sleep(50);
+    release.countDown();
+    closer.join(10000);
+    late.join(10000);
+
+    assertThat(delivered, equalTo(Arrays.asList(1, 2, 3)));
+    assertThat(queue.isTerminated(), is(true));
+  }
+
+  @Test
+  void rejectsEmptyBuffer() {
+    assertThrows(IllegalArgumentException.class, () -> new AsyncEventQueue(0, Backpressure.DROP, "test"));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventBatcherTest {
+
+  private static class Recorder implements WebDriverEventBatchListener {
+    final List<List<Object>> batches = new ArrayList<>();
+    final List<WebDriverEvent> records = new ArrayList<>();
+
+    @Override
+    public void onEvents(List<WebDriverEvent> events) {
+      List<Object> results = new ArrayList<>();
+      for (WebDriverEvent event : events) {
+        results.add(event.getResult());
+        records.add(event);
+      }
+      batches.add(results);
+    }
+  }
+
+  private static MethodDescriptor getTitle() throws NoSuchMethodException {
+    return MethodDescriptor.of(WebDriver.class.getMethod("getTitle"));
+  }
+
+  @Test
+  void deliversFullBatches() throws NoSuchMethodException {
+    EventBatcher batcher = new EventBatcher(3, TimeUnit.HOURS.toNanos(1));
+    Recorder recorder = new Recorder();
+    List<WebDriverEventBatchListener> listeners = Collections.singletonList(recorder);
+
+    for (int i = 0; i < 7; i++) {
+      batcher.add(listeners, getTitle(), "driver", null, "title" + i, null, i, 10);
+    }
+    assertThat(recorder.batches.size(), is(2));
+    assertThat(recorder.batches.get(0), equalTo(asList("title0", "title1", "title2")));
+    assertThat(recorder.batches.get(1), equalTo(asList("title3", "title4", "title5")));
+
+    batcher.flush(listeners);
+    assertThat(recorder.batches.size(), is(3));
+    assertThat(recorder.batches.get(2), equalTo(asList("title6")));
+    batcher.flush(listeners);
+    assertThat(recorder.batches.size(), is(3));
+  }
+
+  @Test
+  void reusesRecords() throws NoSuchMethodException {
+    EventBatcher batcher = new EventBatcher(2, TimeUnit.HOURS.toNanos(1));
+    Recorder recorder = new Recorder();
+    List<WebDriverEventBatchListener> listeners = Collections.singletonList(recorder);
+
+    for (int i = 0; i < 6; i++) {
+      batcher.add(listeners, getTitle(), "driver", null, "title" + i, null, i, 10);
+    }
+
+    // a batch is collected into one array while the other one is delivered
+    assertThat(recorder.records.size(), is(6));
+    assertThat(recorder.records.get(4), sameInstance(recorder.records.get(0)));
+    assertThat(recorder.records.get(5), sameInstance(recorder.records.get(1)));
+    assertThat(recorder.records.get(0).getResult(), nullValue());
+  }
+
+  @Test
+  void listenerCanAddEventsWhileBatchIsDelivered() throws NoSuchMethodException {
+    EventBatcher batcher = new EventBatcher(2, TimeUnit.HOURS.toNanos(1));
+    List<List<Object>> batches = new ArrayList<>();
+    List<WebDriverEventBatchListener> listeners = new ArrayList<>();
+    listeners.add(events -> {
+      List<Object> results = new ArrayList<>();
+      for (WebDriverEvent event : events) {
+        results.add(event.getResult());
+      }
+      batches.add(results);
+      if (batches.size() == 1) {
+        for (int i = 0; i < 3; i++) {
+          batcher.add(listeners, getTitleQuietly(), "driver", null, "nested" + i, null, 0, 10);
+        }
+        // the batch being delivered is not touched by the events added meanwhile
+        assertThat(events.get(0).getResult(), is("title0"));
+      }
+    });
+
+    batcher.add(listeners, getTitle(), "driver", null, "title0", null, 0, 10);
+    batcher.add(listeners, getTitle(), "driver", null, "title1", null, 0, 10);
+    batcher.flush(listeners);
+
+    assertThat(batches, equalTo(Arrays.asList(
+      asList("title0", "title1"), asList("nested0", "nested1"), asList("nested2"))));
+  }
+
+  private static MethodDescriptor getTitleQuietly() {
+    try {
+      return getTitle();
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void deliversBatchesOlderThanMaxAge() throws Exception {
+    EventBatcher batcher = new EventBatcher(100, TimeUnit.MILLISECONDS.toNanos(50));
+    Recorder recorder = new Recorder();
+    List<WebDriverEventBatchListener> listeners = Collections.singletonList(recorder);
+
+    batcher.add(listeners, getTitle(), "driver", null, "old", null, 0, 10);
+    assertThat(recorder.batches.size(), is(0));
+    Thread.sleep(100);
+    batcher.add(listeners, getTitle(), "driver", null, "new", null, 0, 10);
+
+    assertThat(recorder.batches, equalTo(Collections.singletonList(asList("old", "new"))));
+  }
+
+  @Test
+  void batchCannotBeModified() throws NoSuchMethodException {
+    EventBatcher batcher = new EventBatcher(1, TimeUnit.HOURS.toNanos(1));
+    List<WebDriverEventBatchListener> listeners =
+      Collections.singletonList(events -> assertThrows(UnsupportedOperationException.class, () -> events.set(0, null)));
+
+    batcher.add(listeners, getTitle(), "driver", null, "title", null, 0, 10);
+  }
+
+  @Test
+  void retiredBatcherDeliversCollectedEventsAndRejectsNewOnes() throws NoSuchMethodException {
+    EventBatcher batcher = new EventBatcher(10, TimeUnit.HOURS.toNanos(1));
+    Recorder recorder = new Recorder();
+    List<WebDriverEventBatchListener> listeners = Collections.singletonList(recorder);
+
+    assertThat(batcher.add(listeners, getTitle(), "driver", null, "title", null, 0, 10), is(true));
+    batcher.retire(listeners);
+
+    assertThat(recorder.batches, equalTo(Collections.singletonList(asList("title"))));
+    assertThat(batcher.add(listeners, getTitle(), "driver", null, "late", null, 0, 10), is(false));
+    batcher.flush(listeners);
+    assertThat(recorder.batches.size(), is(1));
+  }
+
+  private static List<Object> asList(Object... items) {
+    return java.util.Arrays.asList(items);
+  }
+}
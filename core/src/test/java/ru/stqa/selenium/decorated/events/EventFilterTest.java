@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventFilterTest {
+
+  private static MethodDescriptor descriptor(Class<?> type, String name, Class<?>... parameterTypes)
+    throws NoSuchMethodException {
+    return MethodDescriptor.of(type.getMethod(name, parameterTypes));
+  }
+
+  @Test
+  void filtersByCategory() throws NoSuchMethodException {
+    EventFilter filter = EventFilter.builder().categories(MethodDescriptor.Category.ELEMENT).build();
+    WebElement element = mock(WebElement.class);
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(filter.accepts(descriptor(WebElement.class, "click"), element, null), is(true));
+      assertThat(filter.accepts(descriptor(WebDriver.class, "getTitle"), mock(WebDriver.class), null), is(false));
+    }
+  }
+
+  @Test
+  void excludesMethods() throws NoSuchMethodException {
+    EventFilter filter = EventFilter.builder().excludeMethods("getWindowHandle").build();
+    WebDriver driver = mock(WebDriver.class);
+
+    assertThat(filter.accepts(descriptor(WebDriver.class, "getWindowHandle"), driver, null), is(false));
+    assertThat(filter.accepts(descriptor(WebDriver.class, "getWindowHandles"), driver, null), is(true));
+  }
+
+  @Test
+  void filtersByTargetType() throws NoSuchMethodException {
+    EventFilter filter = EventFilter.builder().targetTypes(WebElement.class).build();
+    MethodDescriptor findElement = descriptor(SearchContext.class, "findElement", By.class);
+    Object[] args = {By.id("id")};
+
+    assertThat(filter.accepts(findElement, mock(WebElement.class), args), is(true));
+    assertThat(filter.accepts(findElement, mock(WebDriver.class), args), is(false));
+  }
+
+  @Test
+  void filtersByLocatorType() throws NoSuchMethodException {
+    EventFilter filter = EventFilter.builder().locatorTypes(Arrays.asList(By.ById.class, By.ByName.class)).build();
+    MethodDescriptor findElement = descriptor(SearchContext.class, "findElement", By.class);
+    WebDriver driver = mock(WebDriver.class);
+
+    assertThat(filter.accepts(findElement, driver, new Object[] {By.id("id")}), is(true));
+    assertThat(filter.accepts(findElement, driver, new Object[] {By.name("name")}), is(true));
+    assertThat(filter.accepts(findElement, driver, new Object[] {By.xpath("//a")}), is(false));
+    assertThat(filter.accepts(descriptor(WebDriver.class, "get", String.class), driver, new Object[] {"url"}),
+      is(true));
+  }
+
+  @Test
+  void combinesConditions() throws NoSuchMethodException {
+    EventFilter filter = EventFilter.builder()
+      .categories(MethodDescriptor.Category.DRIVER, MethodDescriptor.Category.ELEMENT)
+      .excludeMethods("getTitle")
+      .build();
+    WebDriver driver = mock(WebDriver.class);
+
+    assertThat(filter.accepts(descriptor(WebDriver.class, "getTitle"), driver, null), is(false));
+    assertThat(filter.accepts(descriptor(WebDriver.class, "getCurrentUrl"), driver, null), is(true));
+    assertThat(filter.accepts(descriptor(WebDriver.Navigation.class, "back"), driver, null), is(false));
+  }
+}
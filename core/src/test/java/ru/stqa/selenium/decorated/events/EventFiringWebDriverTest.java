@@ -18,7 +18,25 @@ package ru.stqa.selenium.decorated.events;
 
 import org.junit.jupiter.api.Test;
 import org.openqa.selenium.*;
+import ru.stqa.selenium.decorated.Decorated;
+import ru.stqa.selenium.decorated.MethodDescriptor;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class EventFiringWebDriverTest {
@@ -80,4 +98,608 @@ class EventFiringWebDriverTest {
     verifyZeroInteractions(fixture.listener2);
   }
 
+  @Test
+  void doesNotBuildEventsNobodySubscribedTo() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriverListener listener = new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        throw new IllegalStateException(url);
+      }
+    };
+    decoratedDriver.addListener(listener);
+    Decorated<?> target = mock(Decorated.class);
+
+    decoratedDriver.beforeMethodGlobal(target, getTitle(), null);
+    decoratedDriver.afterMethodGlobal(target, getTitle(), "title", null);
+
+    verifyZeroInteractions(target);
+  }
+
+  @Test
+  void canRegisterListenersWhileFiringEvents() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    AtomicInteger permanentEvents = new AtomicInteger();
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        permanentEvents.incrementAndGet();
+      }
+    }, 100);
+
+    int firing = 4;
+    int calls = 2000;
+    AtomicBoolean stop = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(firing + 2);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        int priority = t;
+        tasks.add(executor.submit(() -> {
+          while (! stop.get()) {
+            WebDriverListener listener = new WebDriverListener() {
+              @Override
+              public void afterGet(WebDriver driver, String url) {}
+            };
+            decoratedDriver.addListener(listener, priority);
+            decoratedDriver.removeListener(listener);
+          }
+          return null;
+        }));
+      }
+      List<Future<?>> firingTasks = new ArrayList<>();
+      for (int t = 0; t < firing; t++) {
+        firingTasks.add(executor.submit(() -> {
+          for (int i = 0; i < calls; i++) {
+            driver.get("http://localhost/");
+          }
+          return null;
+        }));
+      }
+      for (Future<?> task : firingTasks) {
+        task.get(30, TimeUnit.SECONDS);
+      }
+      stop.set(true);
+      for (Future<?> task : tasks) {
+        task.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      stop.set(true);
+      executor.shutdownNow();
+    }
+
+    assertThat(permanentEvents.get(), is(firing * calls));
+  }
+
+  @Test
+  void canDeliverAfterEventsAsynchronously() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    Thread testThread = Thread.currentThread();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> afterThreads = Collections.synchronizedList(new ArrayList<>());
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        assertThat(Thread.currentThread(), sameInstance(testThread));
+      }
+
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        events.add(url);
+        afterThreads.add(Thread.currentThread());
+      }
+    });
+    decoratedDriver.enableAsyncAfterEvents(16, Backpressure.BLOCK);
+
+    for (int i = 0; i < 100; i++) {
+      driver.get("http://localhost/" + i);
+    }
+
+    assertThat(decoratedDriver.awaitAfterEvents(10, TimeUnit.SECONDS), is(true));
+    assertThat(events.size(), is(100));
+    for (int i = 0; i < 100; i++) {
+      assertThat(events.get(i), is("http://localhost/" + i));
+      assertThat(afterThreads.get(i), not(sameInstance(testThread)));
+    }
+    assertThat(decoratedDriver.getDroppedAfterEvents(), is(0L));
+
+    decoratedDriver.disableAsyncAfterEvents();
+    driver.get("http://localhost/sync");
+    assertThat(afterThreads.get(100), sameInstance(testThread));
+  }
+
+  @Test
+  void quitDeliversPendingAfterEvents() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        events.add(url);
+      }
+
+      @Override
+      public void afterQuit(WebDriver driver) {
+        events.add("quit");
+      }
+    });
+    decoratedDriver.enableAsyncAfterEvents(16, Backpressure.BLOCK);
+
+    driver.get("http://localhost/");
+    driver.quit();
+
+    assertThat(events, equalTo(Arrays.asList("http://localhost/", "quit")));
+  }
+
+  @Test
+  void quitReleasesQueuesWhenFilterExcludesQuit() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    decoratedDriver.setMethodFilter(method -> ! method.getName().equals("quit"));
+    WebDriver driver = decoratedDriver.getActivated();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        events.add(url);
+      }
+    });
+    decoratedDriver.addBatchListener(batch -> batch.forEach(event -> events.add("batch")));
+    decoratedDriver.enableAsyncAfterEvents(16, Backpressure.BLOCK);
+
+    driver.get("http://localhost/");
+    driver.quit();
+
+    assertThat(events, equalTo(Arrays.asList("http://localhost/", "batch")));
+    verify(mockedDriver).quit();
+  }
+
+  @Test
+  void deliversEventRecordsToBatchListeners() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    WebDriverException failure = new WebDriverException("failed");
+    when(mockedDriver.getTitle()).thenReturn("title");
+    doThrow(failure).when(mockedDriver).get("http://broken/");
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    List<String> events = new ArrayList<>();
+    decoratedDriver.addBatchListener(batch -> {
+      for (WebDriverEvent event : batch) {
+        assertThat(event.getTarget(), sameInstance(mockedDriver));
+        assertThat(event.getDurationNanos() >= 0, is(true));
+        events.add(event.getDescriptor().getMethod().getName() + " " + event.getResult() + " " + event.getFailure());
+      }
+    });
+    decoratedDriver.setEventBatching(2, 1, TimeUnit.HOURS);
+
+    driver.getTitle();
+    assertThat(events.size(), is(0));
+    assertThrows(WebDriverException.class, () -> driver.get("http://broken/"));
+    assertThat(events, equalTo(Arrays.asList("getTitle title null", "get null " + failure)));
+
+    driver.getTitle();
+    driver.quit();
+    assertThat(events.size(), is(4));
+  }
+
+  @Test
+  void doesNotReportTimingOfCallsMadeThroughOtherDrivers() {
+    WebDriver slowDriver = mock(WebDriver.class);
+    when(slowDriver.getTitle()).thenAnswer(invocation -> {
+      Thread.sleep(20);
+      return "slow";
+    });
+    EventFiringWebDriver timed = new EventFiringWebDriver(slowDriver);
+    List<Long> durations = new ArrayList<>();
+    timed.addBatchListener(batch -> batch.forEach(event -> durations.add(event.getDurationNanos())));
+    timed.getActivated().getTitle();
+    timed.flushEvents();
+
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver untimed = new EventFiringWebDriver(mockedDriver);
+    // the listener comes too late for the call to be timed
+    when(mockedDriver.getTitle()).thenAnswer(invocation -> {
+      untimed.addBatchListener(batch -> batch.forEach(event -> durations.add(event.getDurationNanos())));
+      return "fast";
+    });
+    untimed.getActivated().getTitle();
+    untimed.flushEvents();
+
+    assertThat(durations.size(), is(2));
+    assertThat(durations.get(0) >= TimeUnit.MILLISECONDS.toNanos(20), is(true));
+    assertThat(durations.get(1), is(0L));
+  }
+
+  @Test
+  void doesNotLoseEventsWhenBatchingIsChanged() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    AtomicInteger delivered = new AtomicInteger();
+    decoratedDriver.addBatchListener(batch -> delivered.addAndGet(batch.size()));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> calls = executor.submit(() -> {
+        for (int i = 0; i < 2000; i++) {
+          driver.getTitle();
+        }
+      });
+      while (! calls.isDone()) {
+        decoratedDriver.setEventBatching(50, 1, TimeUnit.HOURS);
+      }
+      calls.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    decoratedDriver.flushEvents();
+
+    assertThat(delivered.get(), is(2000));
+  }
+
+  @Test
+  void passesCallDurationsToTimedListeners() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    doAnswer(invocation -> {
+      Thread.sleep(50);
+      return null;
+    }).when(mockedDriver).get("http://localhost/");
+    when(mockedDriver.getTitle()).thenReturn("title");
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    List<String> calls = new ArrayList<>();
+    List<Long> durations = new ArrayList<>();
+    decoratedDriver.addListener(new TimedWebDriverListener() {
+      @Override
+      public void afterGet(WebDriver ignored, String url) {
+        // a nested call does not affect the timing of the outer one
+        driver.getTitle();
+      }
+
+      @Override
+      public void afterAnyCall(Object target, Method method, Object result, Object[] args, long nanos) {
+        assertThat(target, sameInstance(mockedDriver));
+        calls.add(method.getName() + " " + result);
+        durations.add(nanos);
+      }
+    });
+
+    driver.get("http://localhost/");
+
+    assertThat(calls, equalTo(Arrays.asList("getTitle title", "get null")));
+    assertThat(durations.get(1) >= TimeUnit.MILLISECONDS.toNanos(50), is(true));
+    assertThat(durations.get(0) < TimeUnit.MILLISECONDS.toNanos(50), is(true));
+  }
+
+  @Test
+  void accountsTimeSpentByListeners() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    WebDriverListener listener = new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        if (url.contains("fail")) {
+          throw new IllegalStateException(url);
+        }
+      }
+
+      @Override
+      public void afterGet(WebDriver driver, String url) {}
+    };
+    decoratedDriver.addListener(listener);
+
+    driver.get("http://localhost/");
+    driver.get("http://localhost/");
+    assertThrows(IllegalStateException.class, () -> driver.get("http://localhost/fail"));
+
+    List<ListenerCost> costs = decoratedDriver.getListenerCosts();
+    assertThat(costs.size(), is(1));
+    ListenerCost cost = costs.get(0);
+    assertThat(cost.getListener(), sameInstance(listener));
+    assertThat(cost.getState(), is(ListenerCost.State.ACTIVE));
+    assertThat(cost.getEvents().keySet(), equalTo(new java.util.TreeSet<>(Arrays.asList("afterGet", "beforeGet"))));
+    assertThat(cost.getEvents().get("beforeGet").getCalls(), is(3L));
+    assertThat(cost.getEvents().get("beforeGet").getErrors(), is(1L));
+    assertThat(cost.getEvents().get("afterGet").getCalls(), is(2L));
+    assertThat(cost.getErrors(), is(1L));
+  }
+
+  @Test
+  void disablesListenerThatFailsTooOften() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    AtomicInteger calls = new AtomicInteger();
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        calls.incrementAndGet();
+        throw new IllegalStateException(url);
+      }
+    });
+    decoratedDriver.setListenerPolicy(new ListenerPolicy(0, TimeUnit.SECONDS, 2, ListenerPolicy.Action.DISABLE));
+
+    assertThrows(IllegalStateException.class, () -> driver.get("http://localhost/"));
+    assertThrows(IllegalStateException.class, () -> driver.get("http://localhost/"));
+    driver.get("http://localhost/");
+
+    assertThat(calls.get(), is(2));
+    verify(mockedDriver, times(1)).get("http://localhost/");
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.DISABLED));
+  }
+
+  @Test
+  void demotesSlowListenerToAsyncDelivery() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    Thread testThread = Thread.currentThread();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        events.add("before " + url);
+        threads.add(Thread.currentThread());
+        // stays slow, so that it is not promoted back before the test is over
+        if (url.equals("next")) {
+          sleep(50);
+        }
+      }
+
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        events.add("after " + url);
+        threads.add(Thread.currentThread());
+        sleep(50);
+      }
+    });
+    decoratedDriver.setListenerPolicy(
+      new ListenerPolicy(20, TimeUnit.MILLISECONDS, 0, ListenerPolicy.Action.DEMOTE_TO_ASYNC, 1));
+
+    driver.get("slow");
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.DEMOTED_TO_ASYNC));
+    driver.get("next");
+
+    assertThat(decoratedDriver.awaitAfterEvents(10, TimeUnit.SECONDS), is(true));
+    assertThat(events, equalTo(Arrays.asList("before slow", "after slow", "before next", "after next")));
+    assertThat(threads.get(1), sameInstance(testThread));
+    assertThat(threads.get(2), not(sameInstance(testThread)));
+    assertThat(threads.get(3), sameInstance(threads.get(2)));
+    driver.quit();
+  }
+
+  @Test
+  void countsEventsOfDemotedListenersDroppedWhenBufferIsFull() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        try {
+          if (url.equals("slow")) {
+            Thread.sleep(50);
+          } else if (url.equals("blocking")) {
+            blocked.countDown();
+            release.await(10, TimeUnit.SECONDS);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        events.add(url);
+      }
+    });
+    decoratedDriver.setListenerPolicy(
+      new ListenerPolicy(20, TimeUnit.MILLISECONDS, 0, ListenerPolicy.Action.DEMOTE_TO_ASYNC, 1));
+    decoratedDriver.setDemotedListenerBuffer(1, Backpressure.DROP);
+    driver.get("slow");
+
+    driver.get("blocking");
+    assertThat(blocked.await(10, TimeUnit.SECONDS), is(true));
+    driver.get("kept");
+    driver.get("dropped");
+    release.countDown();
+
+    assertThat(decoratedDriver.awaitAfterEvents(10, TimeUnit.SECONDS), is(true));
+    assertThat(events, equalTo(Arrays.asList("slow", "blocking", "kept")));
+    assertThat(decoratedDriver.getDroppedAfterEvents(), is(1L));
+    driver.quit();
+  }
+
+  @Test
+  void promotedListenerGetsNewEventsAfterQueuedOnes() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch blocker = new CountDownLatch(1);
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        events.add("before " + url);
+      }
+
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        events.add("after " + url);
+        if (url.equals("slow")) {
+          sleep(50);
+        }
+      }
+    }, 1);
+    // holds the queue of demoted listeners while the first one is promoted
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void beforeGet(WebDriver driver, String url) {
+        if (url.equals("one")) {
+          try {
+            blocker.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        if (url.equals("slow")) {
+          sleep(50);
+        }
+      }
+    }, 0);
+    decoratedDriver.setListenerPolicy(
+      new ListenerPolicy(20, TimeUnit.MILLISECONDS, 0, ListenerPolicy.Action.DEMOTE_TO_ASYNC, 1));
+
+    driver.get("slow");
+    driver.get("one");
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (decoratedDriver.getListenerCosts().get(0).getState() != ListenerCost.State.ACTIVE
+           && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.ACTIVE));
+    driver.get("two");
+    blocker.countDown();
+
+    assertThat(decoratedDriver.awaitAfterEvents(10, TimeUnit.SECONDS), is(true));
+    assertThat(events, equalTo(Arrays.asList(
+      "before slow", "after slow", "before one", "after one", "before two", "after two")));
+    driver.quit();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void judgesLatencyOfListenerOverWindowOfEvents() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    decoratedDriver.addListener(new WebDriverListener() {
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        if (url.equals("slow")) {
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+    decoratedDriver.setListenerPolicy(
+      new ListenerPolicy(20, TimeUnit.MILLISECONDS, 0, ListenerPolicy.Action.DEMOTE_TO_ASYNC, 3));
+
+    driver.get("slow");
+    driver.get("fast");
+    driver.get("fast");
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.ACTIVE));
+
+    driver.get("slow");
+    driver.get("slow");
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.DEMOTED_TO_ASYNC));
+
+    // fast events delivered asynchronously make it active again
+    for (int i = 0; i < 3; i++) {
+      driver.get("fast");
+    }
+    assertThat(decoratedDriver.awaitAfterEvents(10, TimeUnit.SECONDS), is(true));
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.ACTIVE));
+    driver.quit();
+  }
+
+  @Test
+  void reactivatesDemotedListenerAddedAgain() throws Exception {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    Thread testThread = Thread.currentThread();
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+    WebDriverListener listener = new WebDriverListener() {
+      @Override
+      public void afterGet(WebDriver driver, String url) {
+        threads.add(Thread.currentThread());
+        if (url.equals("slow")) {
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    };
+    decoratedDriver.addListener(listener);
+    decoratedDriver.setListenerPolicy(
+      new ListenerPolicy(20, TimeUnit.MILLISECONDS, 0, ListenerPolicy.Action.DEMOTE_TO_ASYNC, 1));
+    driver.get("slow");
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.DEMOTED_TO_ASYNC));
+
+    decoratedDriver.addListener(listener);
+    assertThat(decoratedDriver.getListenerCosts().get(0).getState(), is(ListenerCost.State.ACTIVE));
+    driver.get("next");
+
+    assertThat(threads.size(), is(2));
+    assertThat(threads.get(1), sameInstance(testThread));
+    driver.quit();
+  }
+
+  @Test
+  void deliversOnlyEventsAcceptedByFilter() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriver driver = decoratedDriver.getActivated();
+    WebDriverListener filtered = spy(new WebDriverListener() {});
+    WebDriverListener unfiltered = spy(new WebDriverListener() {});
+    decoratedDriver.addListener(filtered, EventFilter.builder().excludeMethods("getWindowHandle").build());
+    decoratedDriver.addListener(unfiltered);
+
+    driver.getWindowHandle();
+    driver.get("http://localhost/");
+
+    verify(filtered, times(1)).beforeGet(mockedDriver, "http://localhost/");
+    verify(filtered, times(1)).afterGet(mockedDriver, "http://localhost/");
+    verifyNoMoreInteractions(filtered);
+    verify(unfiltered, times(1)).beforeGetWindowHandle(mockedDriver);
+    verify(unfiltered, times(1)).afterGetWindowHandle(null, mockedDriver);
+  }
+
+  @Test
+  void doesNotBuildEventsRejectedByAllFilters() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    EventFiringWebDriver decoratedDriver = new EventFiringWebDriver(mockedDriver);
+    WebDriverListener listener = spy(new WebDriverListener() {});
+    decoratedDriver.addListener(listener, EventFilter.builder().categories(MethodDescriptor.Category.ELEMENT).build());
+    Decorated<?> target = mock(Decorated.class);
+    when(target.getOriginal()).thenReturn(mockedDriver);
+
+    decoratedDriver.beforeMethodGlobal(target, getTitle(), null);
+    decoratedDriver.afterMethodGlobal(target, getTitle(), "title", null);
+
+    verifyZeroInteractions(listener);
+  }
+
+  private static Method getTitle() {
+    try {
+      return WebDriver.class.getMethod("getTitle");
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
 }
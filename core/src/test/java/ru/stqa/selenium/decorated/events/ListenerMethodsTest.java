@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ListenerMethodsTest {
+
+  public static class Listener implements WebDriverListener {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+      events.add("get " + url);
+    }
+
+    public void beforeFindElement(WebDriver driver, By locator) {
+      events.add("driver " + locator);
+    }
+
+    public void beforeFindElement(WebElement element, By locator) {
+      events.add("element " + locator);
+    }
+  }
+
+  private static MethodDescriptor descriptor(Class<?> type, String name, Class<?>... parameterTypes)
+    throws NoSuchMethodException {
+    return MethodDescriptor.of(type.getMethod(name, parameterTypes));
+  }
+
+  @Test
+  void skipsDefaultMethods() throws NoSuchMethodException {
+    ListenerMethods methods = ListenerMethods.of(Listener.class);
+
+    assertThat(methods.after(descriptor(WebDriver.class, "get", String.class)), sameInstance(ListenerMethods.NONE));
+    assertThat(methods.before(descriptor(WebDriver.class, "getTitle")), sameInstance(ListenerMethods.NONE));
+    assertThat(ListenerMethods.of(WebDriverListener.class).before(descriptor(WebDriver.class, "get", String.class)),
+      sameInstance(ListenerMethods.NONE));
+  }
+
+  @Test
+  void buildsTableOncePerClass() throws NoSuchMethodException {
+    MethodDescriptor get = descriptor(WebDriver.class, "get", String.class);
+
+    assertThat(ListenerMethods.of(Listener.class), sameInstance(ListenerMethods.of(Listener.class)));
+    assertThat(ListenerMethods.of(Listener.class).before(get),
+      sameInstance(ListenerMethods.of(Listener.class).before(get)));
+  }
+
+  @Test
+  void invokesOverriddenMethod() throws NoSuchMethodException {
+    Listener listener = new Listener();
+    ListenerMethods.Handler[] handlers =
+      ListenerMethods.of(Listener.class).before(descriptor(WebDriver.class, "get", String.class));
+    Object[] args = {mock(WebDriver.class), "http://localhost/"};
+
+    ListenerMethods.match(handlers, args).invoke(listener, args);
+
+    assertThat(listener.events, hasItems("get http://localhost/"));
+  }
+
+  @Test
+  void choosesOverloadByArgumentTypes() throws NoSuchMethodException {
+    Listener listener = new Listener();
+    ListenerMethods.Handler[] handlers =
+      ListenerMethods.of(Listener.class).before(descriptor(SearchContext.class, "findElement", By.class));
+    assertThat(handlers.length, is(2));
+
+    Object[] driverArgs = {mock(WebDriver.class), By.id("a")};
+    ListenerMethods.match(handlers, driverArgs).invoke(listener, driverArgs);
+    Object[] elementArgs = {mock(WebElement.class), By.id("b")};
+    ListenerMethods.match(handlers, elementArgs).invoke(listener, elementArgs);
+
+    assertThat(listener.events, hasItems("driver By.id: a", "element By.id: b"));
+    assertThat(ListenerMethods.match(handlers, new Object[] {"text", By.id("c")}), nullValue());
+  }
+}
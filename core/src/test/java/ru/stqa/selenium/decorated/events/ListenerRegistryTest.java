@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class ListenerRegistryTest {
+
+  private static List<WebDriverListener> listeners(ListenerRegistry.Snapshot snapshot) {
+    List<WebDriverListener> listeners = new ArrayList<>();
+    for (ListenerRegistry.Entry entry : snapshot.entries) {
+      listeners.add(entry.listener);
+    }
+    return listeners;
+  }
+
+  @Test
+  void keepsRegistrationOrderWithinPriority() {
+    ListenerRegistry registry = new ListenerRegistry();
+    WebDriverListener first = new WebDriverListener() {};
+    WebDriverListener second = new WebDriverListener() {};
+    WebDriverListener third = new WebDriverListener() {};
+
+    registry.add(first, 0, null);
+    registry.add(second, 0, null);
+    registry.add(third, 0, null);
+
+    assertThat(listeners(registry.get()), equalTo(Arrays.asList(first, second, third)));
+  }
+
+  @Test
+  void ordersByPriorityHigherFirst() {
+    ListenerRegistry registry = new ListenerRegistry();
+    WebDriverListener low = new WebDriverListener() {};
+    WebDriverListener normal = new WebDriverListener() {};
+    WebDriverListener high = new WebDriverListener() {};
+
+    registry.add(normal, 0, null);
+    registry.add(low, -1, null);
+    registry.add(high, 10, null);
+
+    assertThat(listeners(registry.get()), equalTo(Arrays.asList(high, normal, low)));
+  }
+
+  @Test
+  void addingTwiceKeepsOneEntry() {
+    ListenerRegistry registry = new ListenerRegistry();
+    WebDriverListener listener = new WebDriverListener() {};
+    WebDriverListener other = new WebDriverListener() {};
+
+    registry.add(listener, 0, null);
+    registry.add(other, 0, null);
+    registry.add(listener, 0, null);
+    assertThat(listeners(registry.get()), equalTo(Arrays.asList(listener, other)));
+
+    registry.add(listener, -5, null);
+    assertThat(listeners(registry.get()), equalTo(Arrays.asList(other, listener)));
+    assertThat(registry.get().entries[1].priority, is(-5));
+  }
+
+  @Test
+  void addingAgainReactivatesListener() {
+    ListenerRegistry registry = new ListenerRegistry();
+    WebDriverListener listener = new WebDriverListener() {};
+    WebDriverListener other = new WebDriverListener() {};
+    registry.add(listener, 0, null);
+    registry.add(other, 0, null);
+    registry.get().entries[0].counter("beforeGet").add(10, true);
+    registry.get().entries[0].demote(ListenerCost.State.DISABLED);
+
+    registry.add(listener, 0, null);
+
+    assertThat(listeners(registry.get()), equalTo(Arrays.asList(listener, other)));
+    assertThat(registry.get().entries[0].state, is(ListenerCost.State.ACTIVE));
+    assertThat(registry.get().entries[0].errors(), is(0L));
+  }
+
+  @Test
+  void snapshotsAreNotAffectedByLaterChanges() {
+    ListenerRegistry registry = new ListenerRegistry();
+    WebDriverListener listener = new WebDriverListener() {};
+    registry.add(listener, 0, null);
+    ListenerRegistry.Snapshot snapshot = registry.get();
+
+    registry.remove(listener);
+    registry.add(new WebDriverListener() {}, 0, null);
+
+    assertThat(listeners(snapshot), equalTo(Arrays.asList(listener)));
+    registry.clear();
+    assertThat(registry.get(), sameInstance(ListenerRegistry.Snapshot.EMPTY));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.events;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import ru.stqa.selenium.decorated.MethodDescriptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class SubscribedEventsTest {
+
+  public static class GetListener implements WebDriverListener {
+    @Override
+    public void beforeGet(WebDriver driver, String url) {}
+  }
+
+  public static class TitleListener implements WebDriverListener {
+    @Override
+    public void afterGetTitle(String result, WebDriver driver) {}
+  }
+
+  @Test
+  void noListenersMeansNoEvents() throws NoSuchMethodException {
+    SubscribedEvents events = SubscribedEvents.of(Collections.singleton(new WebDriverListener() {}));
+
+    assertThat(events, sameInstance(SubscribedEvents.NONE));
+    assertThat(events.hasBefore(MethodDescriptor.of(WebDriver.class.getMethod("get", String.class))), is(false));
+  }
+
+  @Test
+  void containsEventsOverriddenByAnyListener() throws NoSuchMethodException {
+    MethodDescriptor get = MethodDescriptor.of(WebDriver.class.getMethod("get", String.class));
+    MethodDescriptor getTitle = MethodDescriptor.of(WebDriver.class.getMethod("getTitle"));
+    MethodDescriptor close = MethodDescriptor.of(WebDriver.class.getMethod("close"));
+
+    SubscribedEvents events = SubscribedEvents.of(Arrays.asList(new GetListener(), new TitleListener()));
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(events.hasBefore(get), is(true));
+      assertThat(events.hasAfter(get), is(false));
+      assertThat(events.hasBefore(getTitle), is(false));
+      assertThat(events.hasAfter(getTitle), is(true));
+      assertThat(events.hasBefore(close), is(false));
+      assertThat(events.hasAfter(close), is(false));
+    }
+  }
+}
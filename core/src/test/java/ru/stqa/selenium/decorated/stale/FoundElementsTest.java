@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.stale;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class FoundElementsTest {
+
+  private final WebElement first1 = mock(WebElement.class);
+  private final WebElement second1 = mock(WebElement.class);
+  private final WebElement first2 = mock(WebElement.class);
+  private final WebElement second2 = mock(WebElement.class);
+
+  @Test
+  void fetchesElementsAgainOncePerGeneration() {
+    AtomicInteger fetches = new AtomicInteger();
+    List<List<WebElement>> generations = new ArrayList<>();
+    generations.add(Arrays.asList(first2, second2));
+    FoundElements found = new FoundElements(() -> generations.get(fetches.getAndIncrement()));
+    UnaryOperator<WebElement> first = found.rediscovery(0);
+    UnaryOperator<WebElement> second = found.rediscovery(1);
+
+    assertThat(second.apply(second1), sameInstance(second2));
+    assertThat(first.apply(first1), sameInstance(first2));
+    assertThat(fetches.get(), equalTo(1));
+  }
+
+  @Test
+  void fetchesElementsAgainIfTheNewElementIsStaleToo() {
+    AtomicInteger fetches = new AtomicInteger();
+    WebElement first3 = mock(WebElement.class);
+    List<List<WebElement>> generations = Arrays.asList(Arrays.asList(first2), Arrays.asList(first3));
+    FoundElements found = new FoundElements(() -> generations.get(fetches.getAndIncrement()));
+
+    assertThat(found.rediscovery(0).apply(first1), sameInstance(first2));
+    assertThat(found.rediscovery(0).apply(first2), sameInstance(first3));
+    assertThat(fetches.get(), equalTo(2));
+  }
+
+  @Test
+  void failsIfThereIsNoElementAtTheIndexAnyMore() {
+    FoundElements found = new FoundElements(() -> Collections.singletonList(first2));
+
+    assertThrows(NoSuchElementException.class, () -> found.rediscovery(1).apply(second1));
+  }
+
+  @Test
+  void failsIfTheItemIsNotAnElement() {
+    FoundElements found = new FoundElements(() -> Collections.singletonList("text"));
+
+    assertThrows(NoSuchElementException.class, () -> found.rediscovery(0).apply(first1));
+  }
+}
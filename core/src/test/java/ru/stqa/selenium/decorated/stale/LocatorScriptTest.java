@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.stale;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class LocatorScriptTest {
+
+  @Test
+  void translatesStandardLocators() {
+    List<String> steps = LocatorScript.steps(Arrays.asList(By.id("a"), By.name("b"), By.cssSelector("div > p"),
+      By.xpath(".//p[@x='y']"), By.tagName("span"), By.className("c")));
+
+    assertThat(steps, equalTo(Arrays.asList("id", "a", "name", "b", "css", "div > p", "xpath", ".//p[@x='y']",
+      "tag", "span", "class", "c")));
+  }
+
+  @Test
+  @SuppressWarnings("serial")
+  void doesNotTranslateOtherLocators() {
+    By custom = new By.ById("a") {
+      @Override
+      public List<WebElement> findElements(SearchContext context) {
+        return Collections.emptyList();
+      }
+    };
+
+    assertThat(LocatorScript.steps(Arrays.asList(By.id("a"), By.linkText("b"))), nullValue());
+    assertThat(LocatorScript.steps(Collections.singletonList(By.partialLinkText("b"))), nullValue());
+    assertThat(LocatorScript.steps(Collections.singletonList(custom)), nullValue());
+    assertThat(LocatorScript.steps(Collections.singletonList(By.className("a b"))), nullValue());
+  }
+}
@@ -20,6 +20,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 import org.openqa.selenium.*;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -54,6 +60,30 @@ class StaleTolerantWebDriverTest {
     verifyNoMoreInteractions(element1);
   }
 
+  @Test
+  void shouldRediscoverEachLookupByItsOwnLocatorWhenElementsAreInterned() {
+    WebDriver mockedDriver = mock(WebDriver.class);
+    StaleTolerantWebDriver decorated = new StaleTolerantWebDriver(mockedDriver);
+    decorated.setInternElements(true);
+    WebDriver driver = decorated.getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+
+    when(mockedDriver.findElement(By.id("test"))).thenReturn(element1);
+    when(mockedDriver.findElement(By.name("test"))).thenReturn(element1).thenReturn(element2);
+    doThrow(new StaleElementReferenceException("stale")).when(element1).click();
+
+    WebElement byId = driver.findElement(By.id("test"));
+    WebElement byName = driver.findElement(By.name("test"));
+    byName.click();
+
+    assertThat(byId == byName, equalTo(false));
+    verify(mockedDriver, times(2)).findElement(By.name("test"));
+    verify(mockedDriver, times(1)).findElement(By.id("test"));
+    verify(element2).click();
+  }
+
   @Test
   void shouldRediscoverAStaleElement() {
     Fixture fixture = new Fixture();
@@ -217,4 +247,310 @@ class StaleTolerantWebDriverTest {
     verifyNoMoreInteractions(element2);
   }
 
+  interface JavascriptDriver extends WebDriver, JavascriptExecutor {}
+
+  @Test
+  void shouldRediscoverFromNearestLiveAncestor() {
+    Fixture fixture = new Fixture();
+
+    WebElement grandparent = mock(WebElement.class);
+    WebElement parent1 = mock(WebElement.class);
+    WebElement parent2 = mock(WebElement.class);
+    WebElement child1 = mock(WebElement.class);
+    WebElement child2 = mock(WebElement.class);
+
+    when(fixture.mockedDriver.findElement(By.id("grandparent"))).thenReturn(grandparent);
+    when(grandparent.findElement(By.id("parent"))).thenReturn(parent1).thenReturn(parent2);
+    when(parent1.findElement(By.id("child"))).thenReturn(child1).thenThrow(StaleElementReferenceException.class);
+    when(parent2.findElement(By.id("child"))).thenReturn(child2);
+    doThrow(StaleElementReferenceException.class).when(child1).click();
+
+    WebElement parent = fixture.driver.findElement(By.id("grandparent")).findElement(By.id("parent"));
+    WebElement child = parent.findElement(By.id("child"));
+    child.click();
+    parent.click();
+
+    InOrder inOrder = inOrder(fixture.mockedDriver, grandparent, parent1, parent2, child1, child2);
+    inOrder.verify(fixture.mockedDriver).findElement(By.id("grandparent"));
+    inOrder.verify(grandparent).findElement(By.id("parent"));
+    inOrder.verify(parent1).findElement(By.id("child"));
+    inOrder.verify(child1).click();
+    inOrder.verify(parent1).findElement(By.id("child"));
+    inOrder.verify(grandparent).findElement(By.id("parent"));
+    inOrder.verify(parent2).findElement(By.id("child"));
+    inOrder.verify(child2).click();
+    inOrder.verify(parent2).click();
+    verifyNoMoreInteractions(fixture.mockedDriver, grandparent, parent1, parent2, child1, child2);
+  }
+
+  @Test
+  void shouldRediscoverAChainInOneScript() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement parent1 = mock(WebElement.class);
+    WebElement parent2 = mock(WebElement.class);
+    WebElement child1 = mock(WebElement.class);
+    WebElement child2 = mock(WebElement.class);
+
+    when(mockedDriver.findElement(By.id("parent"))).thenReturn(parent1);
+    when(parent1.findElement(By.cssSelector(".child"))).thenReturn(child1);
+    doThrow(StaleElementReferenceException.class).when(child1).click();
+    when(mockedDriver.executeScript(eq(LocatorScript.SCRIPT), isNull(),
+      eq(Arrays.asList("id", "parent", "css", ".child")))).thenReturn(Arrays.asList(parent2, child2));
+
+    WebElement parent = driver.findElement(By.id("parent"));
+    WebElement child = parent.findElement(By.cssSelector(".child"));
+    child.click();
+    parent.click();
+
+    InOrder inOrder = inOrder(mockedDriver, parent1, parent2, child1, child2);
+    inOrder.verify(mockedDriver).findElement(By.id("parent"));
+    inOrder.verify(parent1).findElement(By.cssSelector(".child"));
+    inOrder.verify(child1).click();
+    inOrder.verify(mockedDriver).executeScript(eq(LocatorScript.SCRIPT), isNull(), any());
+    inOrder.verify(child2).click();
+    inOrder.verify(parent2).click();
+    verifyNoMoreInteractions(mockedDriver, parent1, parent2, child1, child2);
+  }
+
+  @Test
+  void shouldSearchFromLiveAncestorIfScriptFindsNothing() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("test"))).thenReturn(element1).thenReturn(element2);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+
+    driver.findElement(By.id("test")).click();
+
+    InOrder inOrder = inOrder(mockedDriver, element2);
+    inOrder.verify(mockedDriver).findElement(By.id("test"));
+    inOrder.verify(mockedDriver).executeScript(eq(LocatorScript.SCRIPT), isNull(), any());
+    inOrder.verify(mockedDriver).findElement(By.id("test"));
+    inOrder.verify(element2).click();
+  }
+
+  @Test
+  void shouldGiveUpIfElementIsNotFoundAgain() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("test"))).thenReturn(element1).thenThrow(NoSuchElementException.class);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+
+    WebElement element = driver.findElement(By.id("test"));
+    assertThrows(StaleElementReferenceException.class, element::click);
+  }
+
+  @Test
+  void shouldFallBackToLocatorsIfScriptFails() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("test"))).thenReturn(element1).thenReturn(element2);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+    when(mockedDriver.executeScript(anyString(), any(), any())).thenThrow(JavascriptException.class);
+
+    driver.findElement(By.id("test")).click();
+
+    verify(mockedDriver, times(2)).findElement(By.id("test"));
+    verify(element2).click();
+  }
+
+  @Test
+  void shouldNotHideFailuresOfDriverWhileRediscovering() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    when(mockedDriver.findElement(By.id("test"))).thenReturn(element1);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+    when(mockedDriver.executeScript(anyString(), any(), any())).thenThrow(new WebDriverException("session lost"));
+
+    WebElement element = driver.findElement(By.id("test"));
+    WebDriverException thrown = assertThrows(WebDriverException.class, element::click);
+
+    assertThat(thrown.getMessage(), containsString("session lost"));
+    verify(mockedDriver, times(1)).findElement(By.id("test"));
+  }
+
+  @Test
+  void shouldNotUseScriptForLocatorsItCannotEvaluate() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    when(mockedDriver.findElement(By.linkText("test"))).thenReturn(element1).thenReturn(element2);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+
+    driver.findElement(By.linkText("test")).click();
+
+    verify(mockedDriver, times(2)).findElement(By.linkText("test"));
+    verify(element2).click();
+    verifyNoMoreInteractions(mockedDriver);
+  }
+
+  @Test
+  void shouldFindElementsOfAListAgainOnce() {
+    Fixture fixture = new Fixture();
+
+    WebElement first1 = mock(WebElement.class);
+    WebElement second1 = mock(WebElement.class);
+    WebElement first2 = mock(WebElement.class);
+    WebElement second2 = mock(WebElement.class);
+
+    when(fixture.mockedDriver.findElements(By.tagName("li")))
+      .thenReturn(Arrays.asList(first1, second1)).thenReturn(Arrays.asList(first2, second2));
+    doThrow(StaleElementReferenceException.class).when(first1).click();
+    doThrow(StaleElementReferenceException.class).when(second1).click();
+
+    List<WebElement> elements = fixture.driver.findElements(By.tagName("li"));
+    elements.get(0).click();
+    elements.get(1).click();
+
+    InOrder inOrder = inOrder(fixture.mockedDriver, first1, second1, first2, second2);
+    inOrder.verify(fixture.mockedDriver).findElements(By.tagName("li"));
+    inOrder.verify(first1).click();
+    inOrder.verify(fixture.mockedDriver).findElements(By.tagName("li"));
+    inOrder.verify(first2).click();
+    inOrder.verify(second1).click();
+    inOrder.verify(second2).click();
+    verifyNoMoreInteractions(fixture.mockedDriver, first1, second1, first2, second2);
+  }
+
+  @Test
+  void shouldNotRediscoverAnElementMissingFromTheNewList() {
+    Fixture fixture = new Fixture();
+
+    WebElement first1 = mock(WebElement.class);
+    WebElement second1 = mock(WebElement.class);
+    WebElement first2 = mock(WebElement.class);
+
+    when(fixture.mockedDriver.findElements(By.tagName("li")))
+      .thenReturn(Arrays.asList(first1, second1)).thenReturn(Arrays.asList(first2));
+    doThrow(StaleElementReferenceException.class).when(second1).click();
+
+    List<WebElement> elements = fixture.driver.findElements(By.tagName("li"));
+    assertThrows(StaleElementReferenceException.class, elements.get(1)::click);
+    verify(fixture.mockedDriver, times(2)).findElements(By.tagName("li"));
+  }
+
+  @Test
+  void shouldFindElementsAgainInAStaleParent() {
+    Fixture fixture = new Fixture();
+
+    WebElement parent1 = mock(WebElement.class);
+    WebElement parent2 = mock(WebElement.class);
+    WebElement child1 = mock(WebElement.class);
+    WebElement child2 = mock(WebElement.class);
+
+    when(fixture.mockedDriver.findElement(By.id("parent"))).thenReturn(parent1).thenReturn(parent2);
+    when(parent1.findElements(By.tagName("li")))
+      .thenReturn(Arrays.asList(child1)).thenThrow(StaleElementReferenceException.class);
+    when(parent2.findElements(By.tagName("li"))).thenReturn(Arrays.asList(child2));
+    doThrow(StaleElementReferenceException.class).when(child1).click();
+
+    List<WebElement> children = fixture.driver.findElement(By.id("parent")).findElements(By.tagName("li"));
+    children.get(0).click();
+
+    InOrder inOrder = inOrder(fixture.mockedDriver, parent1, parent2, child1, child2);
+    inOrder.verify(fixture.mockedDriver).findElement(By.id("parent"));
+    inOrder.verify(parent1).findElements(By.tagName("li"));
+    inOrder.verify(child1).click();
+    inOrder.verify(parent1).findElements(By.tagName("li"));
+    inOrder.verify(fixture.mockedDriver).findElement(By.id("parent"));
+    inOrder.verify(parent2).findElements(By.tagName("li"));
+    inOrder.verify(child2).click();
+    verifyNoMoreInteractions(fixture.mockedDriver, parent1, parent2, child1, child2);
+  }
+
+  @Test
+  void shouldGetTheActiveElementAgain() {
+    Fixture fixture = new Fixture();
+
+    WebDriver.TargetLocator targetLocator = mock(WebDriver.TargetLocator.class);
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+
+    when(fixture.mockedDriver.switchTo()).thenReturn(targetLocator);
+    when(targetLocator.activeElement()).thenReturn(element1).thenReturn(element2);
+    doThrow(StaleElementReferenceException.class).when(element1).sendKeys("test");
+
+    fixture.driver.switchTo().activeElement().sendKeys("test");
+
+    InOrder inOrder = inOrder(targetLocator, element1, element2);
+    inOrder.verify(targetLocator).activeElement();
+    inOrder.verify(element1).sendKeys("test");
+    inOrder.verify(targetLocator).activeElement();
+    inOrder.verify(element2).sendKeys("test");
+    verifyNoMoreInteractions(targetLocator, element1, element2);
+  }
+
+  @Test
+  void shouldReplayAScriptToGetItsResultAgain() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    StaleTolerantWebDriver decoratedDriver = new StaleTolerantWebDriver(mockedDriver);
+    decoratedDriver.setReplayScripts(true);
+    WebDriver driver = decoratedDriver.getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    WebElement element2 = mock(WebElement.class);
+    when(mockedDriver.executeScript("return document.body", 1)).thenReturn(element1).thenReturn(element2);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+
+    WebElement element = (WebElement) ((JavascriptExecutor) driver).executeScript("return document.body", 1);
+    element.click();
+
+    verify(mockedDriver, times(2)).executeScript("return document.body", 1);
+    verify(element1).click();
+    verify(element2).click();
+  }
+
+  @Test
+  void shouldNotReplayScriptsByDefault() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    WebDriver driver = new StaleTolerantWebDriver(mockedDriver).getActivated();
+
+    WebElement element1 = mock(WebElement.class);
+    when(mockedDriver.executeScript("return document.body")).thenReturn(element1);
+    doThrow(StaleElementReferenceException.class).when(element1).click();
+
+    WebElement element = (WebElement) ((JavascriptExecutor) driver).executeScript("return document.body");
+    assertThrows(StaleElementReferenceException.class, element::click);
+
+    verify(mockedDriver, times(1)).executeScript("return document.body");
+  }
+
+  @Test
+  void shouldReplayAScriptOnceForAListOfElements() {
+    JavascriptDriver mockedDriver = mock(JavascriptDriver.class);
+    StaleTolerantWebDriver decoratedDriver = new StaleTolerantWebDriver(mockedDriver);
+    decoratedDriver.setReplayScripts(true);
+    WebDriver driver = decoratedDriver.getActivated();
+
+    WebElement first1 = mock(WebElement.class);
+    WebElement second1 = mock(WebElement.class);
+    WebElement first2 = mock(WebElement.class);
+    WebElement second2 = mock(WebElement.class);
+    when(mockedDriver.executeScript("return list")).thenReturn(Arrays.asList(first1, second1))
+      .thenReturn(Arrays.asList(first2, second2));
+    when(first1.getText()).thenThrow(StaleElementReferenceException.class);
+    when(second1.getText()).thenThrow(StaleElementReferenceException.class);
+    when(first2.getText()).thenReturn("first");
+    when(second2.getText()).thenReturn("second");
+
+    List<?> elements = (List<?>) ((JavascriptExecutor) driver).executeScript("return list");
+
+    assertThat(((WebElement) elements.get(0)).getText(), equalTo("first"));
+    assertThat(((WebElement) elements.get(1)).getText(), equalTo("second"));
+    verify(mockedDriver, times(2)).executeScript("return list");
+  }
+
 }
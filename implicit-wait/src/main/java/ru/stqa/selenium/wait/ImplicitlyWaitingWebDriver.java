@@ -88,7 +88,7 @@ public class ImplicitlyWaitingWebDriver extends DecoratedWebDriver {
   @Override
   public WebElement findElement(By locator) {
     try {
-      return new ImplicitlyWaitingWebElement(trier().tryTo(getOriginal()::findElement, locator), this).getActivated();
+      return wrapElement(trier().tryTo(getOriginal()::findElement, locator));
     } catch (InterruptedException e) {
       throw new RuntimeException(e);
     } catch (LimitExceededException e) {
@@ -183,7 +183,7 @@ public class ImplicitlyWaitingWebDriver extends DecoratedWebDriver {
     public WebElement findElement(By locator) {
       try {
         WebElement found = trier().tryTo(getOriginal()::findElement, locator);
-        return new ImplicitlyWaitingWebElement(found, getTopmostDecorated()).getActivated();
+        return wrapElement(found);
       } catch (InterruptedException e) {
         throw new RuntimeException(e);
       } catch (LimitExceededException e) {
@@ -28,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -72,6 +73,22 @@ class ImplicitlyWaitingWebDriverTest {
     assertThat(element, equalTo(mockedElement));
   }
 
+  @Test
+  void findElementShouldReturnInternedElements() {
+    final WebElement mockedElement = mock(WebElement.class);
+    final WebElement mockedChild = mock(WebElement.class);
+    when(mockedDriver.findElement(By.name("foo"))).thenReturn(mockedElement);
+    when(mockedElement.findElement(By.name("bar"))).thenReturn(mockedChild);
+    ImplicitlyWaitingWebDriver decorated = new ImplicitlyWaitingWebDriver(mockedDriver, clock, clock, 1, 100);
+    decorated.setInternElements(true);
+    WebDriver driver = decorated.getActivated();
+
+    WebElement element = driver.findElement(By.name("foo"));
+
+    assertThat(driver.findElement(By.name("foo")), sameInstance(element));
+    assertThat(element.findElement(By.name("bar")), sameInstance(element.findElement(By.name("bar"))));
+  }
+
   @Test
   void findElementShouldThrowIfElementIsNotFound() {
     when(mockedDriver.findElement(By.name("foo")))
@@ -24,7 +24,6 @@ import org.slf4j.LoggerFactory;
 import ru.stqa.selenium.decorated.Decorated;
 import ru.stqa.selenium.decorated.DecoratedWebDriver;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 public class LoggingWebDriver extends DecoratedWebDriver {
@@ -76,19 +75,18 @@ public class LoggingWebDriver extends DecoratedWebDriver {
   }
 
   @Override
-  public Object onErrorGlobal(Decorated<?> target, Method method, InvocationTargetException e, Object[] args) throws Throwable {
-    Throwable te = e.getTargetException();
+  public Object onErrorGlobal(Decorated<?> target, Method method, Throwable error, Object[] args) throws Throwable {
     StringBuilder message = new StringBuilder();
     message.append(">< ");
     appendMethod(message, method, args);
     message.append(" on ").append(target.getOriginal());
-    DRIVER_LOG.info(message.toString(), te);
+    DRIVER_LOG.info(message.toString(), error);
 
     if (dumpBrowserLogs) {
       dumpBrowserLogs(getOriginal());
     }
 
-    return super.onErrorGlobal(target, method, e, args);
+    return super.onErrorGlobal(target, method, error, args);
   }
 
   private void appendMethod(StringBuilder message, Method method, Object[] args) {
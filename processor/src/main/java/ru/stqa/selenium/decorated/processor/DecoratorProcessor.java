@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates delegating decorators and interceptors for the interfaces listed in
+ * {@link ru.stqa.selenium.decorated.GenerateDecorators} annotations.
+ */
+@SupportedAnnotationTypes(DecoratorProcessor.ANNOTATION)
+public class DecoratorProcessor extends AbstractProcessor {
+
+  static final String ANNOTATION = "ru.stqa.selenium.decorated.GenerateDecorators";
+
+  private final Set<String> generated = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (Element annotated : roundEnv.getElementsAnnotatedWith(annotation)) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(annotated).getQualifiedName().toString();
+        for (TypeElement decorated : listedInterfaces(annotated)) {
+          generate(annotated, packageName, decorated);
+        }
+      }
+    }
+    return true;
+  }
+
+  private List<TypeElement> listedInterfaces(Element annotated) {
+    List<TypeElement> interfaces = new ArrayList<>();
+    for (AnnotationMirror mirror : annotated.getAnnotationMirrors()) {
+      if (! ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION)) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("value")) {
+          for (Object value : (List<?>) entry.getValue().getValue()) {
+            TypeMirror type = (TypeMirror) ((AnnotationValue) value).getValue();
+            interfaces.add((TypeElement) processingEnv.getTypeUtils().asElement(type));
+          }
+        }
+      }
+    }
+    return interfaces;
+  }
+
+  private void generate(Element annotated, String packageName, TypeElement decorated) {
+    if (decorated.getKind() != ElementKind.INTERFACE) {
+      error(annotated, decorated + " is not an interface");
+      return;
+    }
+    if (! decorated.getTypeParameters().isEmpty()) {
+      error(annotated, "Generic interface " + decorated + " is not supported");
+      return;
+    }
+    if (! generated.add(packageName + "." + decorated.getQualifiedName())) {
+      return;
+    }
+
+    List<ExecutableElement> methods = interfaceMethods(decorated);
+    DecoratorWriter writer = new DecoratorWriter(processingEnv, packageName, decorated, methods);
+    write(annotated, writer.getDecoratorName(), writer.writeDecorator());
+    write(annotated, writer.getInterceptorName(), writer.writeInterceptor());
+  }
+
+  // abstract and default methods of the interface and its superinterfaces, overridden ones excluded
+  private List<ExecutableElement> interfaceMethods(TypeElement decorated) {
+    Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(decorated))) {
+      if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+          || method.getModifiers().contains(Modifier.STATIC) || isObjectMethod(method)) {
+        continue;
+      }
+      String signature = signature(method);
+      ExecutableElement known = methods.get(signature);
+      if (known == null || isSubtype(method.getEnclosingElement(), known.getEnclosingElement())) {
+        methods.put(signature, method);
+      }
+    }
+    return new ArrayList<>(methods.values());
+  }
+
+  private boolean isObjectMethod(ExecutableElement method) {
+    String signature = signature(method);
+    return signature.equals("equals,java.lang.Object") || signature.equals("hashCode") || signature.equals("toString");
+  }
+
+  private String signature(ExecutableElement method) {
+    StringBuilder signature = new StringBuilder(method.getSimpleName());
+    for (VariableElement parameter : method.getParameters()) {
+      signature.append(',').append(processingEnv.getTypeUtils().erasure(parameter.asType()));
+    }
+    return signature.toString();
+  }
+
+  private boolean isSubtype(Element type, Element superType) {
+    return processingEnv.getTypeUtils().isSubtype(
+      processingEnv.getTypeUtils().erasure(type.asType()), processingEnv.getTypeUtils().erasure(superType.asType()));
+  }
+
+  private void write(Element annotated, String className, String source) {
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(className, annotated);
+      try (Writer writer = file.openWriter()) {
+        writer.write(source);
+      }
+    } catch (IOException e) {
+      error(annotated, "Can't write " + className + ": " + e.getMessage());
+    }
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
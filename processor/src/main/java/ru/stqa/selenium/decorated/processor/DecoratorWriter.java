@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.List;
+
+/**
+ * Writes the source code of a decorator and an interceptor for an interface.
+ */
+class DecoratorWriter {
+
+  private final Types types;
+  private final String packageName;
+  private final TypeElement decorated;
+  private final String interfaceName;
+  private final String decoratorName;
+  private final String interceptorName;
+  private final List<ExecutableElement> methods;
+
+  DecoratorWriter(ProcessingEnvironment processingEnv, String packageName, TypeElement decorated,
+                  List<ExecutableElement> methods) {
+    this.types = processingEnv.getTypeUtils();
+    this.packageName = packageName;
+    this.decorated = decorated;
+    this.interfaceName = decorated.getQualifiedName().toString();
+    this.decoratorName = "Decorated" + decorated.getSimpleName();
+    this.interceptorName = "Intercepted" + decorated.getSimpleName();
+    this.methods = methods;
+  }
+
+  String getDecoratorName() {
+    return qualified(decoratorName);
+  }
+
+  String getInterceptorName() {
+    return qualified(interceptorName);
+  }
+
+  String writeDecorator() {
+    StringBuilder out = header();
+    out.append("public class ").append(decoratorName)
+      .append(" extends ru.stqa.selenium.decorated.DecoratedChild<").append(interfaceName)
+      .append(", ru.stqa.selenium.decorated.DecoratedTopmost<?>> implements ").append(interfaceName).append(" {\n\n");
+
+    out.append("  public ").append(decoratorName).append("(").append(interfaceName)
+      .append(" original, ru.stqa.selenium.decorated.DecoratedTopmost<?> topmost) {\n")
+      .append("    super(original, topmost);\n")
+      .append("  }\n");
+
+    for (ExecutableElement method : methods) {
+      ExecutableType type = memberType(method);
+      out.append("\n");
+      signature(out, method, type);
+      out.append(" {\n    ");
+      if (type.getReturnType().getKind() != TypeKind.VOID) {
+        out.append("return ");
+      }
+      out.append("getOriginal().").append(method.getSimpleName()).append("(");
+      arguments(out, type);
+      out.append(");\n  }\n");
+    }
+
+    return out.append("\n}\n").toString();
+  }
+
+  String writeInterceptor() {
+    StringBuilder out = header();
+    out.append("@SuppressWarnings(\"unchecked\")\n")
+      .append("public class ").append(interceptorName).append(" implements ").append(interfaceName).append(" {\n\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      ExecutableElement method = methods.get(i);
+      out.append("  private static final java.lang.reflect.Method M").append(i).append(" = method(")
+        .append(types.erasure(method.getEnclosingElement().asType())).append(".class, \"")
+        .append(method.getSimpleName()).append("\"");
+      for (TypeMirror parameter : memberType(method).getParameterTypes()) {
+        out.append(", ").append(types.erasure(parameter)).append(".class");
+      }
+      out.append(");\n");
+    }
+
+    out.append("\n  private final ").append(decoratorName).append(" decorated;\n\n")
+      .append("  public ").append(interceptorName).append("(").append(decoratorName).append(" decorated) {\n")
+      .append("    this.decorated = decorated;\n")
+      .append("  }\n\n")
+      .append("  public ").append(decoratorName).append(" getDecorated() {\n")
+      .append("    return decorated;\n")
+      .append("  }\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      ExecutableElement method = methods.get(i);
+      ExecutableType type = memberType(method);
+      TypeMirror returnType = type.getReturnType();
+      boolean isVoid = returnType.getKind() == TypeKind.VOID;
+      String m = "M" + i;
+
+      out.append("\n");
+      signature(out, method, type);
+      out.append(" {\n");
+      out.append("    Object[] args = ");
+      if (type.getParameterTypes().isEmpty()) {
+        out.append("null;\n");
+      } else {
+        out.append("new Object[] {");
+        arguments(out, type);
+        out.append("};\n");
+      }
+      out.append("    decorated.beforeMethod(").append(m).append(", args);\n");
+      if (! isVoid) {
+        out.append("    ").append(returnType).append(" result;\n");
+      }
+      out.append("    try {\n      ");
+      if (! isVoid) {
+        out.append("result = ");
+      }
+      out.append("decorated.").append(method.getSimpleName()).append("(");
+      arguments(out, type);
+      out.append(");\n")
+        .append("    } catch (Throwable e) {\n      ");
+      if (isVoid) {
+        out.append("onError(").append(m).append(", e, args);\n      return;\n");
+      } else {
+        out.append("return (").append(boxed(returnType)).append(") onError(").append(m).append(", e, args);\n");
+      }
+      out.append("    }\n")
+        .append("    decorated.afterMethod(").append(m).append(", ").append(isVoid ? "null" : "result").append(", args);\n");
+      if (! isVoid) {
+        out.append("    return result;\n");
+      }
+      out.append("  }\n");
+    }
+
+    out.append("\n  private Object onError(java.lang.reflect.Method method, Throwable e, Object[] args) {\n")
+      .append("    try {\n")
+      .append("      return decorated.onError(method, new java.lang.reflect.InvocationTargetException(e), args);\n")
+      .append("    } catch (Throwable t) {\n")
+      .append("      throw ").append(interceptorName).append(".<RuntimeException>sneakyThrow(t);\n")
+      .append("    }\n")
+      .append("  }\n\n")
+      .append("  private static <E extends Throwable> E sneakyThrow(Throwable e) throws E {\n")
+      .append("    throw (E) e;\n")
+      .append("  }\n\n")
+      .append("  private static java.lang.reflect.Method method(Class<?> declaringClass, String name, Class<?>... parameterTypes) {\n")
+      .append("    try {\n")
+      .append("      return declaringClass.getMethod(name, parameterTypes);\n")
+      .append("    } catch (NoSuchMethodException e) {\n")
+      .append("      throw new IllegalStateException(e);\n")
+      .append("    }\n")
+      .append("  }\n\n")
+      .append("  @Override\n")
+      .append("  public boolean equals(Object obj) {\n")
+      .append("    return obj == this || decorated.getOriginal().equals(obj);\n")
+      .append("  }\n\n")
+      .append("  @Override\n")
+      .append("  public int hashCode() {\n")
+      .append("    return decorated.getOriginal().hashCode();\n")
+      .append("  }\n\n")
+      .append("  @Override\n")
+      .append("  public String toString() {\n")
+      .append("    return decorated.getOriginal().toString();\n")
+      .append("  }\n");
+
+    return out.append("\n}\n").toString();
+  }
+
+  private StringBuilder header() {
+    StringBuilder out = new StringBuilder();
+    out.append("// Generated by ").append(DecoratorProcessor.class.getName()).append(", do not edit\n");
+    if (! packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    return out;
+  }
+
+  private void signature(StringBuilder out, ExecutableElement method, ExecutableType type) {
+    out.append("  @Override\n  public ");
+    List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+    if (! typeParameters.isEmpty()) {
+      out.append("<");
+      for (int i = 0; i < typeParameters.size(); i++) {
+        TypeParameterElement typeParameter = typeParameters.get(i);
+        out.append(i > 0 ? ", " : "").append(typeParameter.getSimpleName());
+        List<? extends TypeMirror> bounds = typeParameter.getBounds();
+        for (int j = 0; j < bounds.size(); j++) {
+          out.append(j > 0 ? " & " : " extends ").append(bounds.get(j));
+        }
+      }
+      out.append("> ");
+    }
+    out.append(type.getReturnType()).append(" ").append(method.getSimpleName()).append("(");
+    List<? extends TypeMirror> parameters = type.getParameterTypes();
+    for (int i = 0; i < parameters.size(); i++) {
+      TypeMirror parameter = parameters.get(i);
+      out.append(i > 0 ? ", " : "");
+      if (method.isVarArgs() && i == parameters.size() - 1) {
+        out.append(((ArrayType) parameter).getComponentType()).append("...");
+      } else {
+        out.append(parameter);
+      }
+      out.append(" arg").append(i);
+    }
+    out.append(")");
+    List<? extends TypeMirror> thrown = type.getThrownTypes();
+    for (int i = 0; i < thrown.size(); i++) {
+      out.append(i > 0 ? ", " : " throws ").append(thrown.get(i));
+    }
+  }
+
+  private void arguments(StringBuilder out, ExecutableType type) {
+    for (int i = 0; i < type.getParameterTypes().size(); i++) {
+      out.append(i > 0 ? ", " : "").append("arg").append(i);
+    }
+  }
+
+  private String boxed(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+    }
+    return type.toString();
+  }
+
+  // types of parameters and results as seen from the decorated interface
+  private ExecutableType memberType(ExecutableElement method) {
+    return (ExecutableType) types.asMemberOf((DeclaredType) decorated.asType(), method);
+  }
+
+  private String qualified(String simpleName) {
+    return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 Alexei Barantsev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.stqa.selenium.decorated.processor;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import ru.stqa.selenium.decorated.DecoratedTopmost;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class DecoratorProcessorTest {
+
+  private static final String SAMPLE =
+    "package sample;\n" +
+    "@ru.stqa.selenium.decorated.GenerateDecorators({org.openqa.selenium.Alert.class, org.openqa.selenium.WebDriver.Window.class,\n" +
+    "  org.openqa.selenium.WebDriver.class, org.openqa.selenium.WebElement.class})\n" +
+    "public class Decorators {}\n";
+
+  private static ClassLoader generated;
+
+  @BeforeAll
+  static void compileSample() throws IOException {
+    Path dir = Files.createTempDirectory("processor");
+    Path source = dir.resolve("sample/Decorators.java");
+    Files.createDirectories(source.getParent());
+    Files.write(source, SAMPLE.getBytes(StandardCharsets.UTF_8));
+
+    String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    int status = compiler.run(null, null, errors, "-classpath", classpath, "-d", dir.toString(), "-s", dir.toString(),
+      "-processor", DecoratorProcessor.class.getName(), source.toString());
+    assertThat(new String(errors.toByteArray(), StandardCharsets.UTF_8), status, is(0));
+
+    generated = new URLClassLoader(new URL[]{dir.toUri().toURL()}, DecoratorProcessorTest.class.getClassLoader());
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::deleteOnExit);
+    }
+  }
+
+  private static Object newInstance(String className, Object... args) throws ReflectiveOperationException {
+    Constructor<?> constructor = generated.loadClass("sample." + className).getConstructors()[0];
+    return constructor.newInstance(args);
+  }
+
+  @Test
+  void generatesDecoratorThatDelegatesToOriginal() throws Throwable {
+    Alert alert = mock(Alert.class);
+    when(alert.getText()).thenReturn("text");
+    DecoratedTopmost<?> topmost = spy(new DecoratedTopmost<Object>(new Object()){});
+
+    Alert decorated = (Alert) newInstance("DecoratedAlert", alert, topmost);
+    assertThat(decorated.getText(), is("text"));
+    decorated.sendKeys("keys");
+
+    verify(alert).getText();
+    verify(alert).sendKeys("keys");
+    verifyNoMoreInteractions(topmost);
+  }
+
+  @Test
+  void generatesInterceptorThatCallsHooks() throws Throwable {
+    Alert alert = mock(Alert.class);
+    when(alert.getText()).thenReturn("text");
+    DecoratedTopmost<?> topmost = spy(new DecoratedTopmost<Object>(new Object()){});
+    Object decorator = newInstance("DecoratedAlert", alert, topmost);
+
+    Alert intercepted = (Alert) newInstance("InterceptedAlert", decorator);
+    assertThat(intercepted.getText(), is("text"));
+
+    InOrder inOrder = inOrder(topmost);
+    inOrder.verify(topmost).beforeMethodGlobal(same((ru.stqa.selenium.decorated.Decorated<?>) decorator),
+      eq(Alert.class.getMethod("getText")), isNull());
+    inOrder.verify(topmost).afterMethodGlobal(same((ru.stqa.selenium.decorated.Decorated<?>) decorator),
+      eq(Alert.class.getMethod("getText")), eq("text"), isNull());
+    verifyNoMoreInteractions(topmost);
+  }
+
+  @Test
+  void interceptorPassesArguments() throws Throwable {
+    WebDriver.Window window = mock(WebDriver.Window.class);
+    DecoratedTopmost<?> topmost = spy(new DecoratedTopmost<Object>(new Object()){});
+    Object decorator = newInstance("DecoratedWindow", window, topmost);
+
+    WebDriver.Window intercepted = (WebDriver.Window) newInstance("InterceptedWindow", decorator);
+    intercepted.maximize();
+    intercepted.setSize(new org.openqa.selenium.Dimension(1, 2));
+
+    verify(window).maximize();
+    verify(window).setSize(new org.openqa.selenium.Dimension(1, 2));
+    Method setSize = WebDriver.Window.class.getMethod("setSize", org.openqa.selenium.Dimension.class);
+    verify(topmost).beforeMethodGlobal(any(), eq(setSize), eq(new Object[]{new org.openqa.selenium.Dimension(1, 2)}));
+  }
+
+  @Test
+  void interceptorPassesExceptionsToErrorHandler() throws Throwable {
+    Alert alert = mock(Alert.class);
+    WebDriverException failure = new WebDriverException();
+    doThrow(failure).when(alert).dismiss();
+    DecoratedTopmost<?> topmost = spy(new DecoratedTopmost<Object>(new Object()){});
+    Object decorator = newInstance("DecoratedAlert", alert, topmost);
+
+    Alert intercepted = (Alert) newInstance("InterceptedAlert", decorator);
+    WebDriverException thrown = assertThrows(WebDriverException.class, intercepted::dismiss);
+
+    assertThat(thrown, sameInstance(failure));
+    verify(topmost).onErrorGlobal(any(), eq(Alert.class.getMethod("dismiss")),
+      same((Throwable) failure), isNull());
+    verify(topmost, never()).afterMethodGlobal(any(), any(), any(), any());
+  }
+
+  @Test
+  void interceptorIsEqualToItselfWithoutAskingTheOriginal() throws Throwable {
+    Alert alert = mock(Alert.class);
+    DecoratedTopmost<?> topmost = spy(new DecoratedTopmost<Object>(new Object()){});
+    Object decorator = newInstance("DecoratedAlert", alert, topmost);
+
+    Alert intercepted = (Alert) newInstance("InterceptedAlert", decorator);
+
+    assertThat(intercepted.equals(intercepted), is(true));
+    verifyNoMoreInteractions(alert, topmost);
+  }
+
+  @Test
+  void generatesClassesForAllListedInterfaces() throws Exception {
+    for (String name : Arrays.asList("DecoratedAlert", "InterceptedAlert", "DecoratedWindow", "InterceptedWindow",
+      "DecoratedWebDriver", "InterceptedWebDriver", "DecoratedWebElement", "InterceptedWebElement")) {
+      assertThat(generated.loadClass("sample." + name), notNullValue());
+    }
+  }
+}